@@ -0,0 +1,103 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.commands.CommandSource;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.permissions.PermissionSet;
+import net.minecraft.world.phys.Vec2;
+import net.minecraft.world.phys.Vec3;
+import org.objenesis.ObjenesisStd;
+
+import java.util.UUID;
+
+/**
+ * Hand-written subjects for the benchmarks, so that they can run without a server.
+ *
+ * <p>The player keeps the vanilla {@link ServerPlayer#createCommandSourceStack()}, so checks
+ * which create a command source for the player report that allocation as they would on a
+ * real server.</p>
+ */
+final class BenchmarkSubjects {
+    static final UUID SUBJECT = UUID.fromString("c1d60c50-70b5-4722-8057-87767557e50d");
+
+    private static final PermissionSet ALL_PERMISSIONS = permission -> true;
+    private static final Component NAME = Component.literal("benchmark");
+
+    private static boolean bootstrapped = false;
+
+    private BenchmarkSubjects() {
+    }
+
+    static SharedSuggestionProvider source() {
+        return new CommandSourceStack(CommandSource.NULL, Vec3.ZERO, Vec2.ZERO, null, ALL_PERMISSIONS, "benchmark", NAME, null, null);
+    }
+
+    static ServerPlayer player() {
+        if (!bootstrapped) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            bootstrapped = true;
+        }
+
+        // the player constructor needs a running server, so the instance is created without it
+        BenchmarkPlayer player = new ObjenesisStd().newInstance(BenchmarkPlayer.class);
+        player.setUUID(SUBJECT);
+        return player;
+    }
+
+    /**
+     * A player whose name and permissions don't depend on a server, profile or scoreboard.
+     */
+    private static final class BenchmarkPlayer extends ServerPlayer {
+        private BenchmarkPlayer() {
+            super(null, null, null, null);
+            throw new AssertionError();
+        }
+
+        @Override
+        public Component getName() {
+            return NAME;
+        }
+
+        @Override
+        public Component getDisplayName() {
+            return NAME;
+        }
+
+        @Override
+        public PermissionSet permissions() {
+            return ALL_PERMISSIONS;
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.server.level.ServerPlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the option request hot paths.
+ *
+ * <p>All but the last registered callback return an empty value, so every callback is
+ * invoked on every request. Events are static, so each {@code callbacks} value is run
+ * in its own fork.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionRequestBenchmark {
+    private static final String KEY = "max-homes";
+    private static final Optional<String> VALUE = Optional.of("5");
+
+    @Param({"0", "1", "3", "10"})
+    public int callbacks;
+
+    private SharedSuggestionProvider source;
+    private ServerPlayer player;
+
+    @Setup
+    public void setup() {
+        this.source = BenchmarkSubjects.source();
+        this.player = BenchmarkSubjects.player();
+
+        for (int i = 0; i < this.callbacks; i++) {
+            Optional<String> value = i == this.callbacks - 1 ? VALUE : Optional.empty();
+            OptionRequestEvent.EVENT.register((source, key) -> value);
+            OfflineOptionRequestEvent.EVENT.register((uuid, key) -> CompletableFuture.completedFuture(value));
+        }
+    }
+
+    @Benchmark
+    public Optional<String> invokeOptionRequestEvent() {
+        return OptionRequestEvent.EVENT.invoker().onOptionRequest(this.source, KEY);
+    }
+
+    @Benchmark
+    public CompletableFuture<Optional<String>> invokeOfflineOptionRequestEvent() {
+        return OfflineOptionRequestEvent.EVENT.invoker().onOptionRequest(BenchmarkSubjects.SUBJECT, KEY);
+    }
+
+    @Benchmark
+    public Optional<String> getSource() {
+        return Options.get(this.source, KEY);
+    }
+
+    @Benchmark
+    public int getSourceTransformed() {
+        return Options.get(this.source, KEY, 0, Integer::parseInt);
+    }
+
+    @Benchmark
+    public int getEntityTransformed() {
+        return Options.get(this.player, KEY, 0, Integer::parseInt);
+    }
+
+    @Benchmark
+    public Integer getUuidTransformed() {
+        return Options.get(BenchmarkSubjects.SUBJECT, KEY, 0, Integer::parseInt).join();
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.permissions.PermissionLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the permission check hot paths.
+ *
+ * <p>Each registered callback returns {@link TriState#DEFAULT}, so every callback is
+ * invoked on every check. Events are static, so each {@code callbacks} value is run
+ * in its own fork.</p>
+ *
+ * <p>The source and node based checks are expected to report a {@code gc.alloc.rate.norm}
+ * of zero. The entity checks include the command source created for the player when a check
+ * falls through to the {@link PermissionCheckEvent}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+    private static final String PERMISSION = "mymod.command.fly";
+    private static final PermissionNode NODE = PermissionNode.of(PERMISSION);
+
+    @Param({"0", "1", "3", "10"})
+    public int callbacks;
+
+    private SharedSuggestionProvider source;
+    private ServerPlayer player;
+
+    @Setup
+    public void setup() {
+        this.source = BenchmarkSubjects.source();
+        this.player = BenchmarkSubjects.player();
+
+        for (int i = 0; i < this.callbacks; i++) {
+            PermissionCheckEvent.EVENT.register((source, permission) -> TriState.DEFAULT);
+            OfflinePermissionCheckEvent.EVENT.register((uuid, permission) -> CompletableFuture.completedFuture(TriState.DEFAULT));
+        }
+    }
+
+    @Benchmark
+    public TriState invokePermissionCheckEvent() {
+        return PermissionCheckEvent.EVENT.invoker().onPermissionCheck(this.source, PERMISSION);
+    }
+
+    @Benchmark
+    public CompletableFuture<TriState> invokeOfflinePermissionCheckEvent() {
+        return OfflinePermissionCheckEvent.EVENT.invoker().onPermissionCheck(BenchmarkSubjects.SUBJECT, PERMISSION);
+    }
+
+    @Benchmark
+    public boolean checkSource() {
+        return Permissions.check(this.source, PERMISSION);
+    }
+
+    @Benchmark
+    public boolean checkSourceNode() {
+        return Permissions.check(this.source, NODE);
+    }
+
+    @Benchmark
+    public boolean checkSourceWithLevelFallback() {
+        return Permissions.check(this.source, PERMISSION, PermissionLevel.GAMEMASTERS);
+    }
+
+    @Benchmark
+    public boolean checkSourceNodeWithLevelFallback() {
+        return Permissions.check(this.source, NODE, PermissionLevel.GAMEMASTERS);
+    }
+
+    @Benchmark
+    public boolean checkEntity() {
+        return Permissions.check(this.player, PERMISSION);
+    }
+
+    @Benchmark
+    public boolean checkEntityWithLevelFallback() {
+        return Permissions.check(this.player, PERMISSION, PermissionLevel.GAMEMASTERS);
+    }
+
+    @Benchmark
+    public Boolean checkUuid() {
+        return Permissions.check(BenchmarkSubjects.SUBJECT, PERMISSION).join();
+    }
+
+}
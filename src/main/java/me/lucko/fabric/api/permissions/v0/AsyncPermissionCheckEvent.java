@@ -0,0 +1,55 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.SharedSuggestionProvider;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous permissions check event for {@link SharedSuggestionProvider}s.
+ *
+ * <p>Called by {@link Permissions#checkAsync(SharedSuggestionProvider, PermissionNode, boolean, java.util.concurrent.Executor)}
+ * when none of the synchronous check events returned a result. Providers can use this event
+ * to answer checks for data which isn't loaded yet, without blocking the server thread.</p>
+ */
+public interface AsyncPermissionCheckEvent {
+
+    Event<AsyncPermissionCheckEvent> EVENT = EventFactory.createArrayBacked(AsyncPermissionCheckEvent.class, (callbacks) -> (source, node) -> {
+        if (PermissionMetrics.enabled) {
+            return PermissionMetrics.timeAsyncPermissionCheck(callbacks, source, node);
+        }
+        return Util.firstResult(callbacks, 0, callback -> callback.onPermissionCheck(source, node), state -> state != TriState.DEFAULT, TriState.DEFAULT);
+    });
+
+    @NotNull CompletableFuture<TriState> onPermissionCheck(@NotNull SharedSuggestionProvider source, @NotNull PermissionNode node);
+
+}
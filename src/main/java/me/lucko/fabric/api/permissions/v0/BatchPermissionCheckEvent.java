@@ -0,0 +1,72 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.SharedSuggestionProvider;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Permissions check event for many permissions at once, for a single {@link SharedSuggestionProvider}.
+ *
+ * <p>Listeners are passed an array of results, indexed in the same order as the permissions.
+ * Each entry is initially {@link TriState#DEFAULT}. Listeners should fill in the entries they are
+ * able to answer, and set the corresponding bit in {@code answered}. Permissions which are known
+ * to be unset should also be marked as answered, leaving the result as {@link TriState#DEFAULT}.
+ * Listeners must skip entries which have already been answered, either by an earlier listener
+ * or from a cache.</p>
+ *
+ * <p>Permissions which no listener could answer, according to {@link KnownPermissionNodes}, are
+ * marked as answered (and left as {@link TriState#DEFAULT}) before the event is fired, in the
+ * same way single checks for them skip dispatch. Listeners are still passed every permission,
+ * so the indices of the results match the permissions.</p>
+ *
+ * <p>Any entries not answered once all listeners have been called are resolved one at a time,
+ * using the {@link PermissionNodeCheckEvent} and {@link PermissionCheckEvent}.</p>
+ */
+public interface BatchPermissionCheckEvent {
+
+    Event<BatchPermissionCheckEvent> EVENT = EventFactory.createArrayBacked(BatchPermissionCheckEvent.class, (callbacks) -> (source, permissions, results, answered) -> {
+        if (PermissionMetrics.enabled) {
+            PermissionMetrics.timeBatchPermissionCheck(callbacks, source, permissions, results, answered);
+            return;
+        }
+        for (BatchPermissionCheckEvent callback : callbacks) {
+            if (answered.cardinality() == results.length) {
+                return;
+            }
+            callback.onPermissionCheck(source, permissions, results, answered);
+        }
+    });
+
+    void onPermissionCheck(@NotNull SharedSuggestionProvider source, @NotNull List<PermissionNode> permissions, @NotNull TriState @NotNull [] results, @NotNull BitSet answered);
+
+}
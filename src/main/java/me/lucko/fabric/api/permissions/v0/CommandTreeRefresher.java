@@ -0,0 +1,132 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.TickTask;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Batches command tree resends requested using {@link Permissions#refreshCommands(ServerPlayer)},
+ * so that each player is sent their command tree at most once per server tick.
+ *
+ * <p>The first request in a tick queues a single task, which runs once the server has finished
+ * the current tick and resends the command tree of every player requested in the meantime.</p>
+ */
+final class CommandTreeRefresher {
+    // the nodes checked by PermissionPredicates, i.e. those which can affect a command tree
+    private static final Set<PermissionNode> COMMAND_NODES = ConcurrentHashMap.newKeySet();
+    private static final Map<MinecraftServer, CommandTreeRefresher> REFRESHERS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    static void registerCommandNode(PermissionNode node) {
+        COMMAND_NODES.add(node);
+    }
+
+    static boolean affectsCommands(Collection<PermissionNode> nodes) {
+        for (PermissionNode node : nodes) {
+            if (COMMAND_NODES.contains(node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void refresh(ServerPlayer player) {
+        MinecraftServer server = player.level().getServer();
+        REFRESHERS.computeIfAbsent(server, CommandTreeRefresher::forServer).request(player.getUUID());
+    }
+
+    private static CommandTreeRefresher forServer(MinecraftServer server) {
+        // only weakly referenced, so that the refresher doesn't keep its key alive
+        WeakReference<MinecraftServer> serverReference = new WeakReference<>(server);
+        Executor scheduler = task -> {
+            MinecraftServer s = serverReference.get();
+            if (s != null) {
+                // unlike execute, this never runs the task inline, even on the server thread
+                s.tell(new TickTask(s.getTickCount(), task));
+            }
+        };
+        Consumer<UUID> sender = uuid -> {
+            MinecraftServer s = serverReference.get();
+            // look up the current entity, in case the player has respawned or disconnected
+            ServerPlayer current = s == null ? null : s.getPlayerList().getPlayer(uuid);
+            if (current != null) {
+                s.getCommands().sendCommands(current);
+            }
+        };
+        return new CommandTreeRefresher(scheduler, sender);
+    }
+
+    private final Executor scheduler;
+    private final Consumer<UUID> sender;
+
+    // guarded by this
+    private final Set<UUID> pending = new LinkedHashSet<>();
+    private boolean scheduled = false;
+
+    CommandTreeRefresher(Executor scheduler, Consumer<UUID> sender) {
+        this.scheduler = scheduler;
+        this.sender = sender;
+    }
+
+    void request(UUID uuid) {
+        synchronized (this) {
+            this.pending.add(uuid);
+            if (this.scheduled) {
+                return;
+            }
+            this.scheduled = true;
+        }
+        this.scheduler.execute(this::flush);
+    }
+
+    private void flush() {
+        List<UUID> players;
+        synchronized (this) {
+            players = List.copyOf(this.pending);
+            this.pending.clear();
+            this.scheduled = false;
+        }
+        for (UUID uuid : players) {
+            this.sender.accept(uuid);
+        }
+    }
+
+}
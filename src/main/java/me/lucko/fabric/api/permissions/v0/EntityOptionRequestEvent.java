@@ -0,0 +1,61 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.world.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Optional;
+
+/**
+ * Option request event for {@link Entity entities}.
+ *
+ * <p>Called for requests made directly against an entity (e.g. a player), before a
+ * command source is created for the entity. If no listener returns a value, the request
+ * falls back to the {@link OptionRequestEvent}.</p>
+ *
+ * <p>Listening to this event is optional, and providers must still listen to the
+ * {@link OptionRequestEvent} to handle requests made against command sources.</p>
+ */
+public interface EntityOptionRequestEvent {
+
+    Event<EntityOptionRequestEvent> EVENT = EventFactory.createArrayBacked(EntityOptionRequestEvent.class, (callbacks) -> (entity, key) -> {
+        if (PermissionMetrics.enabled) {
+            return PermissionMetrics.timeEntityOptionRequest(callbacks, entity, key);
+        }
+        for (EntityOptionRequestEvent callback : callbacks) {
+            Optional<String> value = callback.onOptionRequest(entity, key);
+            if (value.isPresent()) {
+                return value;
+            }
+        }
+        return Optional.empty();
+    });
+
+    @NotNull Optional<String> onOptionRequest(@NotNull Entity entity, @NotNull String key);
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent, identical offline lookups, so that providers are only queried once
+ * for each (subject, key) pair which is in-flight at the same time.
+ *
+ * <p>Requests are only shared while they are in-flight; nothing is retained once the
+ * provider's future completes. When a subject is invalidated, their in-flight requests stop
+ * being shared, so that later callers make a fresh request rather than joining one which
+ * may return stale data.</p>
+ */
+final class InFlightRequests {
+    private InFlightRequests() {}
+
+    private record Key(UUID uuid, String key) { }
+
+    private static final ConcurrentMap<Key, CompletableFuture<TriState>> PERMISSIONS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Key, CompletableFuture<Optional<String>>> OPTIONS = new ConcurrentHashMap<>();
+
+    static CompletableFuture<TriState> permission(UUID uuid, String permission, Supplier<CompletableFuture<TriState>> request) {
+        return coalesce(PERMISSIONS, new Key(uuid, permission), request);
+    }
+
+    static CompletableFuture<Optional<String>> option(UUID uuid, String key, Supplier<CompletableFuture<Optional<String>>> request) {
+        return coalesce(OPTIONS, new Key(uuid, key), request);
+    }
+
+    static void invalidateInternal(@Nullable UUID uuid) {
+        if (uuid == null) {
+            PERMISSIONS.clear();
+            OPTIONS.clear();
+        } else {
+            PERMISSIONS.keySet().removeIf(key -> key.uuid().equals(uuid));
+            OPTIONS.keySet().removeIf(key -> key.uuid().equals(uuid));
+        }
+    }
+
+    private static <T> CompletableFuture<T> coalesce(ConcurrentMap<Key, CompletableFuture<T>> inFlight, Key key, Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> existing = inFlight.get(key);
+        if (existing != null) {
+            // callers each get their own dependent future, so one cannot complete or cancel another's
+            return existing.copy();
+        }
+
+        CompletableFuture<T> shared = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            return existing.copy();
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (Throwable e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+            throw e;
+        }
+
+        if (future.isDone()) {
+            // completed synchronously, there is nothing to share
+            inFlight.remove(key, shared);
+            future.whenComplete((value, ex) -> complete(shared, value, ex));
+            return future;
+        }
+
+        future.whenComplete((value, ex) -> {
+            inFlight.remove(key, shared);
+            complete(shared, value, ex);
+        });
+        return shared.copy();
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, T value, Throwable ex) {
+        if (ex != null) {
+            future.completeExceptionally(ex);
+        } else {
+            future.complete(value);
+        }
+    }
+
+}
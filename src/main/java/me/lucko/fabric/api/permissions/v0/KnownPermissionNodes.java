@@ -0,0 +1,63 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Implemented by {@link PermissionCheckEvent}, {@link PermissionNodeCheckEvent} and
+ * {@link EntityPermissionCheckEvent} callbacks which can tell up-front whether they could
+ * ever return a result for a node.
+ *
+ * <p>{@link PermissionCheckEvent} callbacks are not called for nodes they don't know. If none
+ * of the registered callbacks know a node, checks for it skip dispatch entirely and fall
+ * straight back to the default. Nodes declared using {@link Permissions#register} are always
+ * dispatched.</p>
+ *
+ * <p>The result of {@link #isKnown(PermissionNode)} is cached for each node, so providers
+ * must call {@link #invalidate()} whenever they start to know about new nodes.</p>
+ */
+@FunctionalInterface
+public interface KnownPermissionNodes {
+
+    /**
+     * Discards all cached results of {@link #isKnown(PermissionNode)}.
+     */
+    static void invalidate() {
+        PermissionCheckIndex.invalidate();
+    }
+
+    /**
+     * Gets if the callback could return a result other than {@link net.fabricmc.fabric.api.util.TriState#DEFAULT}
+     * for the given {@code node}.
+     *
+     * @param node the node
+     * @return true if the node is known
+     */
+    boolean isKnown(@NotNull PermissionNode node);
+
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.commands.SharedSuggestionProvider;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Numeric option request event for {@link SharedSuggestionProvider}s.
+ *
+ * <p>Called by the primitive option getters (e.g. {@link Options#getInt(SharedSuggestionProvider, String, int)})
+ * before the {@link OptionRequestEvent}, so that providers which already store numeric values can
+ * answer without converting them to a string. Listeners should return {@link Double#NaN} if the
+ * option is not set.</p>
+ *
+ * <p>Integer and long getters only use values which are whole numbers within the range of the
+ * requested type (and, for longs, within +/- 2^53). Any other value falls back to the
+ * {@link OptionRequestEvent}.</p>
+ *
+ * <p>Listening to this event is optional, and providers must still listen to the
+ * {@link OptionRequestEvent} to handle all other requests.</p>
+ */
+public interface NumericOptionRequestEvent {
+
+    Event<NumericOptionRequestEvent> EVENT = EventFactory.createArrayBacked(NumericOptionRequestEvent.class, (callbacks) -> {
+        Util.numericOptionListeners = callbacks.length != 0;
+        return (source, key) -> {
+            for (NumericOptionRequestEvent callback : callbacks) {
+                double value = callback.onOptionRequest(source, key);
+                if (!Double.isNaN(value)) {
+                    return value;
+                }
+            }
+            return Double.NaN;
+        };
+    });
+
+    double onOptionRequest(@NotNull SharedSuggestionProvider source, @NotNull String key);
+}
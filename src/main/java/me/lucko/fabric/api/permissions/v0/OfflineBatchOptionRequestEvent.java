@@ -0,0 +1,73 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Option request event for many options at once, for a (potentially) offline player.
+ *
+ * <p>Listeners should return a map containing an entry for each key they are able to answer
+ * for, including those which are not set ({@link Optional#empty()}). Each listener is only
+ * passed the keys that have not yet been answered with a value by an earlier listener.</p>
+ *
+ * <p>Keys which are not included in the result of any listener are resolved using the
+ * {@link OfflineOptionRequestEvent}.</p>
+ */
+public interface OfflineBatchOptionRequestEvent {
+
+    Event<OfflineBatchOptionRequestEvent> EVENT = EventFactory.createArrayBacked(OfflineBatchOptionRequestEvent.class, (callbacks) -> (uuid, keys) -> {
+        Map<String, Optional<String>> results = new HashMap<>();
+        return Util.mergeResults(callbacks, 0, results, (callback, res) -> {
+            List<String> remaining = new ArrayList<>();
+            for (String key : keys) {
+                Optional<String> value = res.get(key);
+                if (value == null || value.isEmpty()) {
+                    remaining.add(key);
+                }
+            }
+            return remaining.isEmpty() ? null : callback.onOptionRequest(uuid, remaining);
+        }, (res, answered) -> answered.forEach((key, value) -> {
+            if (value.isPresent() || !res.containsKey(key)) {
+                res.put(key, value);
+            }
+        }));
+    });
+
+    @NotNull CompletableFuture<Map<String, Optional<String>>> onOptionRequest(@NotNull UUID uuid, @NotNull Collection<String> keys);
+
+}
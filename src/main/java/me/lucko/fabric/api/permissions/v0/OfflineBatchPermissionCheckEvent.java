@@ -0,0 +1,74 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.fabricmc.fabric.api.util.TriState;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Permissions check event for a single permission, for many (potentially) offline players at once.
+ *
+ * <p>Listeners should return a map containing an entry for each player they are able to answer
+ * for, including those for which the permission is not set ({@link TriState#DEFAULT}). Each
+ * listener is only passed the players that have not yet been answered with a result other than
+ * {@link TriState#DEFAULT} by an earlier listener.</p>
+ *
+ * <p>Players which are not included in the result of any listener are resolved using the
+ * {@link OfflinePermissionCheckEvent}.</p>
+ */
+public interface OfflineBatchPermissionCheckEvent {
+
+    Event<OfflineBatchPermissionCheckEvent> EVENT = EventFactory.createArrayBacked(OfflineBatchPermissionCheckEvent.class, (callbacks) -> (uuids, permission) -> {
+        Map<UUID, TriState> results = new HashMap<>();
+        return Util.mergeResults(callbacks, 0, results, (callback, res) -> {
+            List<UUID> remaining = new ArrayList<>();
+            for (UUID uuid : uuids) {
+                TriState state = res.get(uuid);
+                if (state == null || state == TriState.DEFAULT) {
+                    remaining.add(uuid);
+                }
+            }
+            return remaining.isEmpty() ? null : callback.onPermissionCheck(remaining, permission);
+        }, (res, answered) -> answered.forEach((uuid, state) -> {
+            if (state != TriState.DEFAULT || !res.containsKey(uuid)) {
+                res.put(uuid, state);
+            }
+        }));
+    });
+
+    @NotNull CompletableFuture<Map<UUID, TriState>> onPermissionCheck(@NotNull Collection<UUID> uuids, @NotNull String permission);
+
+}
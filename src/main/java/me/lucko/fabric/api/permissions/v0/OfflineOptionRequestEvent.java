@@ -39,16 +39,10 @@ import java.util.concurrent.CompletableFuture;
 public interface OfflineOptionRequestEvent {
 
     Event<OfflineOptionRequestEvent> EVENT = EventFactory.createArrayBacked(OfflineOptionRequestEvent.class, (callbacks) -> (uuid, key) -> {
-        CompletableFuture<Optional<String>> res = CompletableFuture.completedFuture(Optional.empty());
-        for (OfflineOptionRequestEvent callback : callbacks) {
-            res = res.thenCompose(value -> {
-                if (value.isPresent()) {
-                    return CompletableFuture.completedFuture(value);
-                }
-                return callback.onOptionRequest(uuid, key);
-            });
+        if (PermissionMetrics.enabled) {
+            return PermissionMetrics.timeOfflineOptionRequest(callbacks, uuid, key);
         }
-        return res;
+        return Util.firstResult(callbacks, 0, callback -> callback.onOptionRequest(uuid, key), Optional::isPresent, Optional.empty());
     });
 
     @NotNull CompletableFuture<Optional<String>> onOptionRequest(@NotNull UUID uuid, @NotNull String key);
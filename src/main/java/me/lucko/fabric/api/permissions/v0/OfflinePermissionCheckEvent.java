@@ -39,16 +39,10 @@ import java.util.concurrent.CompletableFuture;
 public interface OfflinePermissionCheckEvent {
 
     Event<OfflinePermissionCheckEvent> EVENT = EventFactory.createArrayBacked(OfflinePermissionCheckEvent.class, (callbacks) -> (uuid, permission) -> {
-        CompletableFuture<TriState> res = CompletableFuture.completedFuture(TriState.DEFAULT);
-        for (OfflinePermissionCheckEvent callback : callbacks) {
-            res = res.thenCompose(triState -> {
-                if (triState != TriState.DEFAULT) {
-                    return CompletableFuture.completedFuture(triState);
-                }
-                return callback.onPermissionCheck(uuid, permission);
-            });
+        if (PermissionMetrics.enabled) {
+            return PermissionMetrics.timeOfflinePermissionCheck(callbacks, uuid, permission);
         }
-        return res;
+        return Util.firstResult(callbacks, 0, callback -> callback.onPermissionCheck(uuid, permission), state -> state != TriState.DEFAULT, TriState.DEFAULT);
     });
 
     @NotNull CompletableFuture<TriState> onPermissionCheck(@NotNull UUID uuid, @NotNull String permission);
@@ -0,0 +1,67 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.fabricmc.fabric.api.util.TriState;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Permissions query event for all permissions under a prefix, for (potentially) offline players.
+ *
+ * <p>Listeners should return the state of each permission starting with the prefix that is
+ * set for the player. As with the {@link OfflinePermissionCheckEvent}, the state returned by the
+ * earliest listener takes precedence, and {@link TriState#DEFAULT} entries are ignored.</p>
+ *
+ * <p>As with the {@link PermissionPrefixQueryEvent}, entries are used exactly as returned, so
+ * providers should resolve wildcards and negations themselves.</p>
+ *
+ * <p>If no listener is registered, {@link Permissions#getGrantedUnder(UUID, String)} checks
+ * each registered permission under the prefix instead.</p>
+ */
+public interface OfflinePermissionPrefixQueryEvent {
+
+    Event<OfflinePermissionPrefixQueryEvent> EVENT = EventFactory.createArrayBacked(OfflinePermissionPrefixQueryEvent.class, (callbacks) -> {
+        Util.offlinePrefixQueryListeners = callbacks.length != 0;
+        return (uuid, prefix) -> {
+            Map<String, TriState> results = new LinkedHashMap<>();
+            return Util.mergeResults(callbacks, 0, results, (callback, res) -> callback.onPermissionQuery(uuid, prefix), (res, answered) -> answered.forEach((permission, state) -> {
+                if (state != TriState.DEFAULT) {
+                    res.putIfAbsent(permission, state);
+                }
+            }));
+        };
+    });
+
+    @NotNull CompletableFuture<Map<String, TriState>> onPermissionQuery(@NotNull UUID uuid, @NotNull String prefix);
+
+}
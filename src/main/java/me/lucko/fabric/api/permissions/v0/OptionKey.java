@@ -0,0 +1,159 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A typed option key, bundling the key with a parser and a default value.
+ *
+ * <p>Parsed values are cached per raw value, so repeatedly reading the same value does not
+ * re-run the parser. Raw values which fail to parse are also remembered, and resolve to the
+ * default value without the parser being called again. Both caches hold the most recently
+ * used values, and are bounded separately, so that many distinct valid values don't evict
+ * the invalid ones.</p>
+ *
+ * <p>The parser is allowed to throw {@link IllegalArgumentException} or return null. This
+ * will result in the default value being returned.</p>
+ *
+ * @param <T> the type of the option value
+ */
+public final class OptionKey<T> {
+    private static final int MAX_CACHED_VALUES = 256;
+
+    /**
+     * Creates a new option key.
+     *
+     * <p>For example, to create a key for an integer meta value, use:</p>
+     * <p><blockquote><pre>
+     *     OptionKey.of("my-int-value", Integer::parseInt, 0);
+     * </pre></blockquote>
+     *
+     * @param key the option key
+     * @param parser the parser used to transform raw values
+     * @param defaultValue the default value
+     * @param <T> the type of the option value
+     * @return the option key
+     */
+    public static <T> @NotNull OptionKey<T> of(@NotNull String key, @NotNull Function<String, ? extends T> parser, T defaultValue) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(parser, "parser");
+        return new OptionKey<>(key, parser, defaultValue);
+    }
+
+    private final String key;
+    private final Function<String, ? extends T> parser;
+    private final T defaultValue;
+    // guarded by themselves
+    private final Map<String, T> parsed = lruMap();
+    private final Map<String, Boolean> invalid = lruMap();
+
+    private OptionKey(String key, Function<String, ? extends T> parser, T defaultValue) {
+        this.key = key;
+        this.parser = parser;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Gets the option key.
+     *
+     * @return the key
+     */
+    public @NotNull String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Gets the default value.
+     *
+     * @return the default value
+     */
+    public T getDefaultValue() {
+        return this.defaultValue;
+    }
+
+    /**
+     * Parses a raw option value, falling back to the default value if the raw value is
+     * null or cannot be parsed.
+     *
+     * @param value the raw value
+     * @return the parsed value
+     */
+    public T parse(@Nullable String value) {
+        if (value == null) {
+            return this.defaultValue;
+        }
+
+        T result;
+        synchronized (this.parsed) {
+            result = this.parsed.get(value);
+        }
+        if (result != null) {
+            return result;
+        }
+        synchronized (this.invalid) {
+            if (this.invalid.get(value) != null) {
+                return this.defaultValue;
+            }
+        }
+
+        try {
+            result = this.parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            result = null;
+        }
+        if (result == null) {
+            synchronized (this.invalid) {
+                this.invalid.put(value, Boolean.TRUE);
+            }
+            return this.defaultValue;
+        }
+        synchronized (this.parsed) {
+            this.parsed.put(value, result);
+        }
+        return result;
+    }
+
+    private static <V> Map<String, V> lruMap() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > MAX_CACHED_VALUES;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return this.key;
+    }
+}
@@ -38,6 +38,9 @@ import java.util.Optional;
 public interface OptionRequestEvent {
 
     Event<OptionRequestEvent> EVENT = EventFactory.createArrayBacked(OptionRequestEvent.class, (callbacks) -> (source, key) -> {
+        if (PermissionMetrics.enabled) {
+            return PermissionMetrics.timeOptionRequest(callbacks, source, key);
+        }
         for (OptionRequestEvent callback : callbacks) {
             Optional<String> value = callback.onOptionRequest(source, key);
             if (value.isPresent()) {
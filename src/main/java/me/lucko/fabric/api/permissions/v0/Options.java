@@ -27,11 +27,15 @@ package me.lucko.fabric.api.permissions.v0;
 
 import com.mojang.authlib.GameProfile;
 import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.server.players.NameAndId;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
@@ -91,13 +95,7 @@ public interface Options {
      * @return the transformed option value
      */
     static <T> @NotNull Optional<T> get(@NotNull SharedSuggestionProvider source, @NotNull String key, @NotNull Function<String, ? extends T> valueTransformer) {
-        return get(source, key).flatMap(value -> {
-            try {
-                return Optional.ofNullable(valueTransformer.apply(value));
-            } catch (IllegalArgumentException e) {
-                return Optional.empty();
-            }
-        });
+        return Util.transformOption(get(source, key), valueTransformer);
     }
 
     /**
@@ -127,6 +125,83 @@ public interface Options {
         return Options.<T>get(source, key, valueTransformer).orElse(defaultValue);
     }
 
+    /**
+     * Gets the value of a typed option for the given source.
+     *
+     * @param source the source
+     * @param key the option key
+     * @param <T> the type of the option value
+     * @return the option value, or the key's default value if nothing is returned or the value is invalid
+     */
+    static <T> T get(@NotNull SharedSuggestionProvider source, @NotNull OptionKey<T> key) {
+        Objects.requireNonNull(key, "key");
+        return key.parse(get(source, key.getKey()).orElse(null));
+    }
+
+    /**
+     * Gets the value of an integer option for the given source, falling back to the
+     * {@code defaultValue} if nothing is returned or the value is not a valid integer.
+     *
+     * @param source the source
+     * @param key the option key
+     * @param defaultValue the default value
+     * @return the option value
+     */
+    static int getInt(@NotNull SharedSuggestionProvider source, @NotNull String key, int defaultValue) {
+        double value = Util.requestNumericOption(source, key);
+        if (Util.isExactInteger(value, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            return (int) value;
+        }
+        return (int) Util.parseLong(get(source, key).orElse(null), Integer.MIN_VALUE, Integer.MAX_VALUE, defaultValue);
+    }
+
+    /**
+     * Gets the value of a long option for the given source, falling back to the
+     * {@code defaultValue} if nothing is returned or the value is not a valid long.
+     *
+     * @param source the source
+     * @param key the option key
+     * @param defaultValue the default value
+     * @return the option value
+     */
+    static long getLong(@NotNull SharedSuggestionProvider source, @NotNull String key, long defaultValue) {
+        double value = Util.requestNumericOption(source, key);
+        if (Util.isExactInteger(value, Long.MIN_VALUE, Long.MAX_VALUE)) {
+            return (long) value;
+        }
+        return Util.parseLong(get(source, key).orElse(null), Long.MIN_VALUE, Long.MAX_VALUE, defaultValue);
+    }
+
+    /**
+     * Gets the value of a double option for the given source, falling back to the
+     * {@code defaultValue} if nothing is returned or the value is not a valid double.
+     *
+     * @param source the source
+     * @param key the option key
+     * @param defaultValue the default value
+     * @return the option value
+     */
+    static double getDouble(@NotNull SharedSuggestionProvider source, @NotNull String key, double defaultValue) {
+        double value = Util.requestNumericOption(source, key);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        return Util.parseDouble(get(source, key).orElse(null), defaultValue);
+    }
+
+    /**
+     * Gets the value of a boolean option for the given source, falling back to the
+     * {@code defaultValue} if nothing is returned or the value is not {@code true} or {@code false}.
+     *
+     * @param source the source
+     * @param key the option key
+     * @param defaultValue the default value
+     * @return the option value
+     */
+    static boolean getBoolean(@NotNull SharedSuggestionProvider source, @NotNull String key, boolean defaultValue) {
+        return Util.parseBoolean(get(source, key).orElse(null), defaultValue);
+    }
+
     /**
      * Gets the value of an option for the given entity.
      *
@@ -136,7 +211,11 @@ public interface Options {
      */
     static @NotNull Optional<String> get(@NotNull Entity entity, @NotNull String key) {
         Objects.requireNonNull(entity, "entity");
-        return get(Util.commandSourceFromEntity(entity), key);
+        Objects.requireNonNull(key, "key");
+        if (entity instanceof ServerPlayer && PlayerOptionCache.isEnabled()) {
+            return PlayerOptionCache.get((ServerPlayer) entity, key);
+        }
+        return Util.requestOption(entity, key);
     }
 
     /**
@@ -150,8 +229,7 @@ public interface Options {
      */
     @Contract("_, _, !null -> !null")
     static String get(@NotNull Entity entity, @NotNull String key, String defaultValue) {
-        Objects.requireNonNull(entity, "entity");
-        return get(Util.commandSourceFromEntity(entity), key, defaultValue);
+        return get(entity, key).orElse(defaultValue);
     }
 
     /**
@@ -175,8 +253,7 @@ public interface Options {
      * @return the transformed option value
      */
     static <T> @NotNull Optional<T> get(@NotNull Entity entity, @NotNull String key, @NotNull Function<String, ? extends T> valueTransformer) {
-        Objects.requireNonNull(entity, "entity");
-        return get(Util.commandSourceFromEntity(entity), key, valueTransformer);
+        return Util.transformOption(get(entity, key), valueTransformer);
     }
 
     /**
@@ -203,13 +280,92 @@ public interface Options {
      */
     @Contract("_, _, !null, _ -> !null")
     static <T> T get(@NotNull Entity entity, @NotNull String key, T defaultValue, @NotNull Function<String, ? extends T> valueTransformer) {
-        Objects.requireNonNull(entity, "entity");
-        return get(Util.commandSourceFromEntity(entity), key, defaultValue, valueTransformer);
+        return Options.<T>get(entity, key, valueTransformer).orElse(defaultValue);
+    }
+
+    /**
+     * Gets the value of a typed option for the given entity.
+     *
+     * @param entity the entity
+     * @param key the option key
+     * @param <T> the type of the option value
+     * @return the option value, or the key's default value if nothing is returned or the value is invalid
+     */
+    static <T> T get(@NotNull Entity entity, @NotNull OptionKey<T> key) {
+        Objects.requireNonNull(key, "key");
+        return key.parse(get(entity, key.getKey()).orElse(null));
+    }
+
+    /**
+     * Gets the value of an integer option for the given entity, falling back to the
+     * {@code defaultValue} if nothing is returned or the value is not a valid integer.
+     *
+     * @param entity the entity
+     * @param key the option key
+     * @param defaultValue the default value
+     * @return the option value
+     */
+    static int getInt(@NotNull Entity entity, @NotNull String key, int defaultValue) {
+        double value = Util.requestNumericOption(entity, key);
+        if (Util.isExactInteger(value, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            return (int) value;
+        }
+        return (int) Util.parseLong(get(entity, key).orElse(null), Integer.MIN_VALUE, Integer.MAX_VALUE, defaultValue);
+    }
+
+    /**
+     * Gets the value of a long option for the given entity, falling back to the
+     * {@code defaultValue} if nothing is returned or the value is not a valid long.
+     *
+     * @param entity the entity
+     * @param key the option key
+     * @param defaultValue the default value
+     * @return the option value
+     */
+    static long getLong(@NotNull Entity entity, @NotNull String key, long defaultValue) {
+        double value = Util.requestNumericOption(entity, key);
+        if (Util.isExactInteger(value, Long.MIN_VALUE, Long.MAX_VALUE)) {
+            return (long) value;
+        }
+        return Util.parseLong(get(entity, key).orElse(null), Long.MIN_VALUE, Long.MAX_VALUE, defaultValue);
+    }
+
+    /**
+     * Gets the value of a double option for the given entity, falling back to the
+     * {@code defaultValue} if nothing is returned or the value is not a valid double.
+     *
+     * @param entity the entity
+     * @param key the option key
+     * @param defaultValue the default value
+     * @return the option value
+     */
+    static double getDouble(@NotNull Entity entity, @NotNull String key, double defaultValue) {
+        double value = Util.requestNumericOption(entity, key);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        return Util.parseDouble(get(entity, key).orElse(null), defaultValue);
+    }
+
+    /**
+     * Gets the value of a boolean option for the given entity, falling back to the
+     * {@code defaultValue} if nothing is returned or the value is not {@code true} or {@code false}.
+     *
+     * @param entity the entity
+     * @param key the option key
+     * @param defaultValue the default value
+     * @return the option value
+     */
+    static boolean getBoolean(@NotNull Entity entity, @NotNull String key, boolean defaultValue) {
+        return Util.parseBoolean(get(entity, key).orElse(null), defaultValue);
     }
 
     /**
      * Gets the value of an option for the given (potentially) offline player.
      *
+     * <p>Concurrent requests for the same player and key share a single provider lookup
+     * while it is in-flight.</p>
+     *
      * @param uuid the uuid of the player
      * @param key the option key
      * @return the option value
@@ -217,7 +373,7 @@ public interface Options {
     static @NotNull CompletableFuture<Optional<String>> get(@NotNull UUID uuid, @NotNull String key) {
         Objects.requireNonNull(uuid, "uuid");
         Objects.requireNonNull(key, "key");
-        return OfflineOptionRequestEvent.EVENT.invoker().onOptionRequest(uuid, key);
+        return InFlightRequests.option(uuid, key, () -> OfflineOptionRequestEvent.EVENT.invoker().onOptionRequest(uuid, key));
     }
 
     /**
@@ -255,13 +411,7 @@ public interface Options {
      * @return the transformed option value
      */
     static <T> @NotNull CompletableFuture<Optional<T>> get(@NotNull UUID uuid, @NotNull String key, @NotNull Function<String, ? extends T> valueTransformer) {
-        return get(uuid, key).thenApply(opt -> opt.flatMap(value -> {
-            try {
-                return Optional.ofNullable(valueTransformer.apply(value));
-            } catch (IllegalArgumentException e) {
-                return Optional.empty();
-            }
-        }));
+        return get(uuid, key).thenApply(opt -> Util.transformOption(opt, valueTransformer));
     }
 
     /**
@@ -291,6 +441,58 @@ public interface Options {
         return Options.<T>get(uuid, key, valueTransformer).thenApply(opt -> opt.orElse(defaultValue));
     }
 
+    /**
+     * Gets the values of many options at once for the given (potentially) offline player.
+     *
+     * <p>This is intended to be used when a player joins, so that all of the options a mod needs
+     * are resolved in as few provider round trips as possible.</p>
+     *
+     * <p>If the {@link PlayerOptionCache} is enabled and the player is online, the results are
+     * also added to the player's cached option view.</p>
+     *
+     * @param uuid the uuid of the player
+     * @param keys the option keys
+     * @return the option values, containing an entry for each key that has a value
+     */
+    static @NotNull CompletableFuture<Map<String, String>> prefetch(@NotNull UUID uuid, @NotNull Collection<String> keys) {
+        Objects.requireNonNull(uuid, "uuid");
+        Objects.requireNonNull(keys, "keys");
+        return Util.prefetchOptions(uuid, keys, PlayerOptionCache.getOrCreateView(uuid));
+    }
+
+    /**
+     * Gets the values of many options at once for the given player.
+     *
+     * <p>This is intended to be used when a player joins, so that all of the options a mod needs
+     * are resolved in as few provider round trips as possible.</p>
+     *
+     * <p>If the {@link PlayerOptionCache} is enabled, the results are also added to the player's
+     * cached option view, so later reads using {@link #get(Entity, String)} are answered without
+     * dispatching any events.</p>
+     *
+     * @param player the player
+     * @param keys the option keys
+     * @return the option values, containing an entry for each key that has a value
+     */
+    static @NotNull CompletableFuture<Map<String, String>> prefetch(@NotNull ServerPlayer player, @NotNull Collection<String> keys) {
+        Objects.requireNonNull(player, "player");
+        Objects.requireNonNull(keys, "keys");
+        return Util.prefetchOptions(player.getUUID(), keys, PlayerOptionCache.getOrCreateView(player));
+    }
+
+    /**
+     * Gets the value of a typed option for the given (potentially) offline player.
+     *
+     * @param uuid the uuid of the player
+     * @param key the option key
+     * @param <T> the type of the option value
+     * @return the option value, or the key's default value if nothing is returned or the value is invalid
+     */
+    static <T> @NotNull CompletableFuture<T> get(@NotNull UUID uuid, @NotNull OptionKey<T> key) {
+        Objects.requireNonNull(key, "key");
+        return get(uuid, key.getKey()).thenApply(opt -> key.parse(opt.orElse(null)));
+    }
+
     /**
      * Gets the value of an option for the given (potentially) offline player.
      *
@@ -0,0 +1,200 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.world.entity.Entity;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An opt-in cache of permission check results.
+ *
+ * <p>When enabled, the results of {@link Permissions#getPermissionValue(SharedSuggestionProvider, PermissionNode)}
+ * for sources backed by an entity, and of {@link Permissions#getPermissionValue(Entity, PermissionNode)},
+ * are cached, keyed by the entity's unique id and the permission node.
+ * The cache is bounded: once it holds more than the maximum number of results, all of the
+ * results of the least recently used subject are evicted.</p>
+ *
+ * <p>Cached results are discarded when a provider fires the {@link PermissionInvalidationEvent}.
+ * The cache should only be enabled if all installed providers fire the event when their data
+ * (including any contextual data the result depends on) changes.</p>
+ */
+public final class PermissionCache {
+    private static volatile PermissionCache instance = null;
+
+    /**
+     * Enables the cache, replacing any existing cache.
+     *
+     * @param maximumSize the maximum number of results to keep
+     */
+    public static void enable(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        instance = new PermissionCache(maximumSize);
+    }
+
+    /**
+     * Disables the cache and discards all cached results.
+     */
+    public static void disable() {
+        instance = null;
+    }
+
+    /**
+     * Gets if the cache is enabled.
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return instance != null;
+    }
+
+    static @Nullable PermissionCache get() {
+        return instance;
+    }
+
+    static void invalidateInternal(@Nullable UUID uuid) {
+        PermissionCache cache = instance;
+        if (cache != null) {
+            cache.invalidate(uuid);
+        }
+    }
+
+    private final int maximumSize;
+    private final ConcurrentMap<UUID, Subject> subjects = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    // incremented on each invalidation
+    private volatile long generation = 0;
+    // orders subjects by their last use, deliberately not synchronized as eviction is approximate
+    private long clock = 0;
+
+    private PermissionCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Nullable TriState get(UUID uuid, PermissionNode node) {
+        Subject subject = this.subjects.get(uuid);
+        if (subject == null) {
+            return null;
+        }
+        subject.lastUsed = ++this.clock;
+        synchronized (subject) {
+            return subject.results.get(node);
+        }
+    }
+
+    /**
+     * Gets the current generation, to be read before a result is computed and passed to
+     * {@link #put(UUID, PermissionNode, TriState, long)}.
+     */
+    long generation() {
+        return this.generation;
+    }
+
+    /**
+     * Stores a result, unless the cache has been invalidated since the given {@code generation}
+     * was read (in which case the result may be stale).
+     */
+    void put(UUID uuid, PermissionNode node, TriState state, long generation) {
+        if (this.generation != generation) {
+            return;
+        }
+        Subject subject = this.subjects.get(uuid);
+        if (subject == null) {
+            subject = this.subjects.computeIfAbsent(uuid, u -> new Subject());
+        }
+
+        boolean added;
+        synchronized (subject) {
+            // checked again while holding the lock, which invalidation also takes
+            if (subject.removed || this.generation != generation) {
+                return;
+            }
+            added = subject.results.put(node, state) == null;
+        }
+        subject.lastUsed = ++this.clock;
+        if (added && this.size.incrementAndGet() > this.maximumSize) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        while (this.size.get() > this.maximumSize) {
+            Map.Entry<UUID, Subject> eldest = null;
+            for (Map.Entry<UUID, Subject> entry : this.subjects.entrySet()) {
+                if (eldest == null || entry.getValue().lastUsed < eldest.getValue().lastUsed) {
+                    eldest = entry;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private void remove(UUID uuid, Subject subject) {
+        if (this.subjects.remove(uuid, subject)) {
+            synchronized (subject) {
+                subject.removed = true;
+                this.size.addAndGet(-subject.results.size());
+                subject.results.clear();
+            }
+        }
+    }
+
+    private void invalidate(@Nullable UUID uuid) {
+        synchronized (this) {
+            this.generation++;
+        }
+        if (uuid == null) {
+            this.subjects.forEach(this::remove);
+        } else {
+            Subject subject = this.subjects.get(uuid);
+            if (subject != null) {
+                remove(uuid, subject);
+            }
+        }
+    }
+
+    private static final class Subject {
+        // guarded by this
+        private final Map<PermissionNode, TriState> results = new HashMap<>();
+        private boolean removed = false;
+
+        private volatile long lastUsed;
+    }
+
+}
@@ -31,21 +31,41 @@ import net.fabricmc.fabric.api.util.TriState;
 import net.minecraft.commands.SharedSuggestionProvider;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Objects;
+
 /**
  * Simple permissions check event for {@link SharedSuggestionProvider}s.
+ *
+ * <p>Callbacks may also implement {@link KnownPermissionNodes}, so that they are skipped for
+ * nodes they could never answer.</p>
  */
 public interface PermissionCheckEvent {
 
-    Event<PermissionCheckEvent> EVENT = EventFactory.createArrayBacked(PermissionCheckEvent.class, (callbacks) -> (source, permission) -> {
-        for (PermissionCheckEvent callback : callbacks) {
-            TriState state = callback.onPermissionCheck(source, permission);
-            if (state != TriState.DEFAULT) {
-                return state;
-            }
-        }
-        return TriState.DEFAULT;
+    Event<PermissionCheckEvent> EVENT = EventFactory.createArrayBacked(PermissionCheckEvent.class, (callbacks) -> {
+        PermissionCheckIndex.updatePermissionCallbacks(callbacks);
+        return (source, permission) -> PermissionCheckIndex.dispatch(callbacks, source, permission);
     });
 
+    /**
+     * Registers a callback which only answers checks for permissions starting with the
+     * given {@code namespace}, e.g. {@code "worldedit."}.
+     *
+     * <p>The callback is registered with the {@link #EVENT} in a phase for its {@code priority}.
+     * Phases are called highest priority first, and callbacks registered directly with the event
+     * are in the {@link Event#DEFAULT_PHASE default phase}, i.e. priority {@code 0}. The callback
+     * is not called at all for permissions outside its namespace. An empty namespace matches
+     * all permissions.</p>
+     *
+     * @param namespace the namespace the callback can answer for
+     * @param priority the priority of the callback
+     * @param callback the callback
+     */
+    static void register(@NotNull String namespace, int priority, @NotNull PermissionCheckEvent callback) {
+        Objects.requireNonNull(namespace, "namespace");
+        Objects.requireNonNull(callback, "callback");
+        PermissionCheckIndex.register(namespace, priority, callback);
+    }
+
     @NotNull TriState onPermissionCheck(@NotNull SharedSuggestionProvider source, @NotNull String permission);
 
 }
@@ -0,0 +1,237 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.resources.Identifier;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Indexes the permission check callbacks by the nodes they can answer, and registers the
+ * namespaced callbacks added using {@link PermissionCheckEvent#register(String, int, PermissionCheckEvent)}.
+ *
+ * <p>Namespaced callbacks are registered with the {@link PermissionCheckEvent#EVENT} itself, in
+ * an event phase for their priority, so they are also called by users of the event's invoker.</p>
+ *
+ * <p>The callbacks which apply to a node are computed once and cached on the
+ * {@link PermissionNode}, until the next registration or call to
+ * {@link KnownPermissionNodes#invalidate()}.</p>
+ */
+final class PermissionCheckIndex {
+    private PermissionCheckIndex() {}
+
+    private static final PermissionCheckEvent[] NO_PERMISSION_CALLBACKS = new PermissionCheckEvent[0];
+    private static final Object[] NONE = new Object[0];
+
+    record Callbacks(int generation, PermissionCheckEvent[] callbacks, boolean unknown) { }
+
+    // the priorities which have an event phase, ordered relative to each other
+    private static final TreeSet<Integer> PRIORITIES = new TreeSet<>(List.of(0));
+
+    // the callbacks registered with each of the check events, captured by their invokers
+    private static PermissionCheckEvent[] permissionCallbacks = NO_PERMISSION_CALLBACKS;
+    private static Object[] nodeCallbacks = NONE;
+    private static Object[] entityCallbacks = NONE;
+
+    // true if any callback is namespaced or declares its known nodes
+    private static volatile boolean indexed = false;
+    private static volatile int generation = 0;
+
+    static void register(String namespace, int priority, PermissionCheckEvent callback) {
+        Identifier phase;
+        synchronized (PRIORITIES) {
+            phase = phase(priority);
+            if (PRIORITIES.add(priority)) {
+                // phases are called highest priority first, with plain listeners at priority 0
+                Integer higher = PRIORITIES.higher(priority);
+                Integer lower = PRIORITIES.lower(priority);
+                if (higher != null) {
+                    PermissionCheckEvent.EVENT.addPhaseOrdering(phase(higher), phase);
+                }
+                if (lower != null) {
+                    PermissionCheckEvent.EVENT.addPhaseOrdering(phase, phase(lower));
+                }
+            }
+        }
+        PermissionCheckEvent.EVENT.register(phase, new NamespacedCallback(namespace, callback));
+    }
+
+    private static Identifier phase(int priority) {
+        if (priority == 0) {
+            return Event.DEFAULT_PHASE;
+        }
+        return Identifier.fromNamespaceAndPath("fabric-permissions-api-v0", "priority/" + priority);
+    }
+
+    static synchronized void updatePermissionCallbacks(PermissionCheckEvent[] callbacks) {
+        permissionCallbacks = callbacks;
+        update();
+    }
+
+    static synchronized void updateNodeCallbacks(PermissionNodeCheckEvent[] callbacks) {
+        nodeCallbacks = callbacks;
+        update();
+    }
+
+    static synchronized void updateEntityCallbacks(EntityPermissionCheckEvent[] callbacks) {
+        entityCallbacks = callbacks;
+        update();
+    }
+
+    static synchronized void invalidate() {
+        generation++;
+    }
+
+    private static void update() {
+        indexed = declaresKnownNodes(permissionCallbacks) || declaresKnownNodes(nodeCallbacks) || declaresKnownNodes(entityCallbacks);
+        generation++;
+    }
+
+    private static boolean declaresKnownNodes(Object[] callbacks) {
+        for (Object callback : callbacks) {
+            if (callback instanceof KnownPermissionNodes) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean mayAnswer(Object callback, PermissionNode node) {
+        return !(callback instanceof KnownPermissionNodes) || ((KnownPermissionNodes) callback).isKnown(node);
+    }
+
+    private static boolean anyMayAnswer(Object[] callbacks, PermissionNode node) {
+        for (Object callback : callbacks) {
+            if (mayAnswer(callback, node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the given {@code node} as declared using {@link Permissions#register}, so that
+     * checks for it are always dispatched.
+     */
+    static void registered(PermissionNode node) {
+        node.registered = true;
+    }
+
+    /**
+     * Gets if none of the registered callbacks could answer a check for the given {@code node},
+     * in which case dispatch can be skipped entirely.
+     *
+     * <p>Registered nodes are never considered unknown.</p>
+     */
+    static boolean isUnknown(PermissionNode node) {
+        return indexed && !node.registered && callbacks(node).unknown();
+    }
+
+    /**
+     * Gets the {@link PermissionCheckEvent} callbacks which apply to the given {@code node},
+     * in the order they should be called.
+     */
+    static Callbacks callbacks(PermissionNode node) {
+        Callbacks cached = node.indexedCallbacks;
+        if (cached != null && cached.generation() == generation) {
+            return cached;
+        }
+
+        List<PermissionCheckEvent> callbacks = new ArrayList<>();
+        boolean unknown;
+        int generation;
+        synchronized (PermissionCheckIndex.class) {
+            generation = PermissionCheckIndex.generation;
+            for (PermissionCheckEvent callback : permissionCallbacks) {
+                if (mayAnswer(callback, node)) {
+                    callbacks.add(callback);
+                }
+            }
+            unknown = callbacks.isEmpty() && !anyMayAnswer(nodeCallbacks, node) && !anyMayAnswer(entityCallbacks, node);
+        }
+        cached = new Callbacks(generation, callbacks.toArray(new PermissionCheckEvent[0]), unknown);
+        node.indexedCallbacks = cached;
+        return cached;
+    }
+
+    /**
+     * Dispatches a check made through the {@link PermissionCheckEvent#EVENT event's} invoker.
+     */
+    static TriState dispatch(PermissionCheckEvent[] callbacks, SharedSuggestionProvider source, String permission) {
+        if (indexed) {
+            callbacks = callbacks(PermissionNode.of(permission)).callbacks();
+        }
+        return call(callbacks, source, permission);
+    }
+
+    /**
+     * Dispatches a check for an already interned {@code node}, to the currently registered callbacks.
+     */
+    static TriState dispatch(SharedSuggestionProvider source, PermissionNode node) {
+        PermissionCheckEvent[] callbacks = indexed ? callbacks(node).callbacks() : permissionCallbacks;
+        return call(callbacks, source, node.getPermission());
+    }
+
+    private static TriState call(PermissionCheckEvent[] callbacks, SharedSuggestionProvider source, String permission) {
+        if (PermissionMetrics.enabled) {
+            return PermissionMetrics.timePermissionCheck(callbacks, source, permission);
+        }
+        for (PermissionCheckEvent callback : callbacks) {
+            TriState state = callback.onPermissionCheck(source, permission);
+            if (state != TriState.DEFAULT) {
+                return state;
+            }
+        }
+        return TriState.DEFAULT;
+    }
+
+    /**
+     * A callback registered using {@link PermissionCheckEvent#register(String, int, PermissionCheckEvent)},
+     * which only knows the nodes within its namespace.
+     */
+    record NamespacedCallback(String namespace, PermissionCheckEvent callback) implements PermissionCheckEvent, KnownPermissionNodes {
+        @Override
+        public boolean isKnown(@NotNull PermissionNode node) {
+            return node.getPermission().startsWith(this.namespace) && mayAnswer(this.callback, node);
+        }
+
+        @Override
+        public @NotNull TriState onPermissionCheck(@NotNull SharedSuggestionProvider source, @NotNull String permission) {
+            if (!permission.startsWith(this.namespace)) {
+                return TriState.DEFAULT;
+            }
+            return this.callback.onPermissionCheck(source, permission);
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.server.level.ServerPlayer;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Event fired by permission providers when the permission (or option) data of a subject has changed.
+ *
+ * <p>Providers should call {@code PermissionInvalidationEvent.EVENT.invoker().onInvalidate(uuid)}
+ * whenever a user's data changes, or pass {@code null} if the change could affect any subject
+ * (for example, when a group is modified).</p>
+ *
+ * <p>Listeners registered using {@link Permissions#watch(ServerPlayer, PermissionNode, Consumer)}
+ * are notified of any resulting changes after all callbacks of this event have been called.</p>
+ */
+public interface PermissionInvalidationEvent {
+
+    Event<PermissionInvalidationEvent> EVENT = EventFactory.createArrayBacked(PermissionInvalidationEvent.class, (callbacks) -> (uuid) -> {
+        PermissionCache.invalidateInternal(uuid);
+        TickPermissionCache.invalidateInternal();
+        PlayerOptionCache.invalidateInternal(uuid);
+        InFlightRequests.invalidateInternal(uuid);
+        for (PermissionInvalidationEvent callback : callbacks) {
+            callback.onInvalidate(uuid);
+        }
+        PermissionWatchers.invalidateInternal(uuid);
+    });
+
+    void onInvalidate(@Nullable UUID uuid);
+
+}
@@ -0,0 +1,450 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.world.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional metrics for permission checks and option requests.
+ *
+ * <p>When enabled, the invokers of the permission check and option request events record call
+ * counts, results and latencies, both per permission node (or option key) and per registered
+ * callback. When disabled (the default), the only overhead is a single volatile read per event
+ * dispatch.</p>
+ *
+ * <p>Each check is recorded against its node once, by the event which answered it. The
+ * {@link PermissionNodeCheckEvent}, {@link EntityPermissionCheckEvent},
+ * {@link AsyncPermissionCheckEvent} and {@link EntityOptionRequestEvent} only record the checks
+ * they answer, since the others fall through to the {@link PermissionCheckEvent} or
+ * {@link OptionRequestEvent}, which record them.</p>
+ *
+ * <p>For permission checks, a hit is a result other than {@link TriState#DEFAULT}. For option
+ * requests, a hit is a present value. Latencies of offline requests are measured until the
+ * returned future completes.</p>
+ */
+public final class PermissionMetrics {
+    private static final int HISTOGRAM_BUCKETS = 40;
+
+    static volatile boolean enabled = false;
+
+    private static final Map<String, Counters> PERMISSIONS = new ConcurrentHashMap<>();
+    private static final Map<String, Counters> OPTIONS = new ConcurrentHashMap<>();
+    private static final Map<String, Counters> CALLBACKS = new ConcurrentHashMap<>();
+
+    private PermissionMetrics() {
+    }
+
+    /**
+     * Enables metrics collection.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Disables metrics collection. Metrics collected so far are kept until {@link #reset()} is called.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Gets if metrics collection is enabled.
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Discards all collected metrics.
+     */
+    public static void reset() {
+        PERMISSIONS.clear();
+        OPTIONS.clear();
+        CALLBACKS.clear();
+    }
+
+    /**
+     * Gets the metrics for each permission node that has been checked, most called first.
+     *
+     * @return the permission metrics
+     */
+    public static @NotNull List<Entry> getPermissionMetrics() {
+        return snapshot(PERMISSIONS);
+    }
+
+    /**
+     * Gets the metrics for each option key that has been requested, most called first.
+     *
+     * @return the option metrics
+     */
+    public static @NotNull List<Entry> getOptionMetrics() {
+        return snapshot(OPTIONS);
+    }
+
+    /**
+     * Gets the metrics for each registered callback that has been called, most called first.
+     *
+     * <p>Callbacks are named by the event they are registered to and their class name.</p>
+     *
+     * @return the callback metrics
+     */
+    public static @NotNull List<Entry> getCallbackMetrics() {
+        return snapshot(CALLBACKS);
+    }
+
+    /**
+     * Writes all collected metrics as CSV.
+     *
+     * @param out the output
+     * @throws IOException if an I/O error occurs
+     */
+    public static void dumpCsv(@NotNull Appendable out) throws IOException {
+        out.append("type,name,calls,hits,misses,true,false,total_nanos,p50_nanos,p99_nanos\n");
+        dumpCsv(out, "permission", getPermissionMetrics());
+        dumpCsv(out, "option", getOptionMetrics());
+        dumpCsv(out, "callback", getCallbackMetrics());
+    }
+
+    /**
+     * Writes all collected metrics as JSON.
+     *
+     * @param out the output
+     * @throws IOException if an I/O error occurs
+     */
+    public static void dumpJson(@NotNull Appendable out) throws IOException {
+        out.append('{');
+        dumpJson(out, "permissions", getPermissionMetrics());
+        out.append(',');
+        dumpJson(out, "options", getOptionMetrics());
+        out.append(',');
+        dumpJson(out, "callbacks", getCallbackMetrics());
+        out.append('}');
+    }
+
+    /**
+     * A snapshot of the metrics collected for a single node, key or callback.
+     *
+     * @param name the permission node, option key or callback name
+     * @param calls the number of calls
+     * @param hits the number of calls which returned a result
+     * @param misses the number of calls which did not return a result
+     * @param trueResults the number of permission checks which returned {@link TriState#TRUE}
+     * @param falseResults the number of permission checks which returned {@link TriState#FALSE}
+     * @param totalNanos the total time spent, in nanoseconds
+     * @param latencyHistogram the number of calls which took {@code [2^(i-1), 2^i)} nanoseconds, for each index {@code i}
+     */
+    public record Entry(@NotNull String name, long calls, long hits, long misses, long trueResults, long falseResults, long totalNanos, long @NotNull [] latencyHistogram) {
+
+        /**
+         * Gets the approximate latency at the given percentile, in nanoseconds.
+         *
+         * @param percentile the percentile, between 0 and 1
+         * @return the latency, rounded up to the nearest histogram bucket
+         */
+        public long percentileNanos(double percentile) {
+            long total = 0;
+            for (long count : this.latencyHistogram) {
+                total += count;
+            }
+            long target = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < this.latencyHistogram.length; i++) {
+                seen += this.latencyHistogram[i];
+                if (seen >= target && seen > 0) {
+                    return 1L << i;
+                }
+            }
+            return 0;
+        }
+    }
+
+    static TriState timePermissionCheck(PermissionCheckEvent[] callbacks, SharedSuggestionProvider source, String permission) {
+        long start = System.nanoTime();
+        TriState result = TriState.DEFAULT;
+        for (PermissionCheckEvent callback : callbacks) {
+            long callbackStart = System.nanoTime();
+            TriState state = callback.onPermissionCheck(source, permission);
+            record(CALLBACKS, callbackName("PermissionCheckEvent", callback), callbackStart, state);
+            if (state != TriState.DEFAULT) {
+                result = state;
+                break;
+            }
+        }
+        record(PERMISSIONS, permission, start, result);
+        return result;
+    }
+
+    // the node, entity and async events are followed by another event when they don't answer a
+    // check, which records it instead - so they only record the checks they answer themselves
+
+    static TriState timeNodePermissionCheck(PermissionNodeCheckEvent[] callbacks, SharedSuggestionProvider source, PermissionNode node) {
+        long start = System.nanoTime();
+        for (PermissionNodeCheckEvent callback : callbacks) {
+            long callbackStart = System.nanoTime();
+            TriState state = callback.onPermissionCheck(source, node);
+            record(CALLBACKS, callbackName("PermissionNodeCheckEvent", callback), callbackStart, state);
+            if (state != TriState.DEFAULT) {
+                record(PERMISSIONS, node.getPermission(), start, state);
+                return state;
+            }
+        }
+        return TriState.DEFAULT;
+    }
+
+    static TriState timeEntityPermissionCheck(EntityPermissionCheckEvent[] callbacks, Entity entity, PermissionNode node) {
+        long start = System.nanoTime();
+        for (EntityPermissionCheckEvent callback : callbacks) {
+            long callbackStart = System.nanoTime();
+            TriState state = callback.onPermissionCheck(entity, node);
+            record(CALLBACKS, callbackName("EntityPermissionCheckEvent", callback), callbackStart, state);
+            if (state != TriState.DEFAULT) {
+                record(PERMISSIONS, node.getPermission(), start, state);
+                return state;
+            }
+        }
+        return TriState.DEFAULT;
+    }
+
+    static CompletableFuture<TriState> timeAsyncPermissionCheck(AsyncPermissionCheckEvent[] callbacks, SharedSuggestionProvider source, PermissionNode node) {
+        long start = System.nanoTime();
+        CompletableFuture<TriState> result = Util.firstResult(callbacks, 0, callback -> {
+            long callbackStart = System.nanoTime();
+            CompletableFuture<TriState> future = callback.onPermissionCheck(source, node);
+            future.whenComplete((state, ex) -> record(CALLBACKS, callbackName("AsyncPermissionCheckEvent", callback), callbackStart, state));
+            return future;
+        }, state -> state != TriState.DEFAULT, TriState.DEFAULT);
+        result.whenComplete((state, ex) -> {
+            if (state != null && state != TriState.DEFAULT) {
+                record(PERMISSIONS, node.getPermission(), start, state);
+            }
+        });
+        return result;
+    }
+
+    static Optional<String> timeEntityOptionRequest(EntityOptionRequestEvent[] callbacks, Entity entity, String key) {
+        long start = System.nanoTime();
+        for (EntityOptionRequestEvent callback : callbacks) {
+            long callbackStart = System.nanoTime();
+            Optional<String> value = callback.onOptionRequest(entity, key);
+            record(CALLBACKS, callbackName("EntityOptionRequestEvent", callback), callbackStart, value.isPresent(), TriState.DEFAULT);
+            if (value.isPresent()) {
+                record(OPTIONS, key, start, true, TriState.DEFAULT);
+                return value;
+            }
+        }
+        return Optional.empty();
+    }
+
+    static void timeBatchPermissionCheck(BatchPermissionCheckEvent[] callbacks, SharedSuggestionProvider source, List<PermissionNode> permissions, TriState[] results, BitSet answered) {
+        BitSet previouslyAnswered = (BitSet) answered.clone();
+        long start = System.nanoTime();
+        for (BatchPermissionCheckEvent callback : callbacks) {
+            if (answered.cardinality() == results.length) {
+                break;
+            }
+            int answeredBefore = answered.cardinality();
+            long callbackStart = System.nanoTime();
+            callback.onPermissionCheck(source, permissions, results, answered);
+            record(CALLBACKS, callbackName("BatchPermissionCheckEvent", callback), callbackStart, answered.cardinality() > answeredBefore, TriState.DEFAULT);
+        }
+        long nanos = System.nanoTime() - start;
+
+        // the time taken is shared between the permissions answered by the batch
+        BitSet batchAnswered = (BitSet) answered.clone();
+        batchAnswered.andNot(previouslyAnswered);
+        int count = batchAnswered.cardinality();
+        for (int i = batchAnswered.nextSetBit(0); i >= 0; i = batchAnswered.nextSetBit(i + 1)) {
+            recordNanos(PERMISSIONS, permissions.get(i).getPermission(), nanos / count, results[i] != TriState.DEFAULT, results[i]);
+        }
+    }
+
+    static Optional<String> timeOptionRequest(OptionRequestEvent[] callbacks, SharedSuggestionProvider source, String key) {
+        long start = System.nanoTime();
+        Optional<String> result = Optional.empty();
+        for (OptionRequestEvent callback : callbacks) {
+            long callbackStart = System.nanoTime();
+            Optional<String> value = callback.onOptionRequest(source, key);
+            record(CALLBACKS, callbackName("OptionRequestEvent", callback), callbackStart, value.isPresent(), TriState.DEFAULT);
+            if (value.isPresent()) {
+                result = value;
+                break;
+            }
+        }
+        record(OPTIONS, key, start, result.isPresent(), TriState.DEFAULT);
+        return result;
+    }
+
+    static CompletableFuture<TriState> timeOfflinePermissionCheck(OfflinePermissionCheckEvent[] callbacks, UUID uuid, String permission) {
+        long start = System.nanoTime();
+        CompletableFuture<TriState> result = Util.firstResult(callbacks, 0, callback -> {
+            long callbackStart = System.nanoTime();
+            CompletableFuture<TriState> future = callback.onPermissionCheck(uuid, permission);
+            future.whenComplete((state, ex) -> record(CALLBACKS, callbackName("OfflinePermissionCheckEvent", callback), callbackStart, state));
+            return future;
+        }, state -> state != TriState.DEFAULT, TriState.DEFAULT);
+        result.whenComplete((state, ex) -> record(PERMISSIONS, permission, start, state));
+        return result;
+    }
+
+    static CompletableFuture<Optional<String>> timeOfflineOptionRequest(OfflineOptionRequestEvent[] callbacks, UUID uuid, String key) {
+        long start = System.nanoTime();
+        CompletableFuture<Optional<String>> result = Util.firstResult(callbacks, 0, callback -> {
+            long callbackStart = System.nanoTime();
+            CompletableFuture<Optional<String>> future = callback.onOptionRequest(uuid, key);
+            future.whenComplete((value, ex) -> record(CALLBACKS, callbackName("OfflineOptionRequestEvent", callback), callbackStart, value != null && value.isPresent(), TriState.DEFAULT));
+            return future;
+        }, Optional::isPresent, Optional.empty());
+        result.whenComplete((value, ex) -> record(OPTIONS, key, start, value != null && value.isPresent(), TriState.DEFAULT));
+        return result;
+    }
+
+    private static String callbackName(String event, Object callback) {
+        if (callback instanceof PermissionCheckIndex.NamespacedCallback) {
+            callback = ((PermissionCheckIndex.NamespacedCallback) callback).callback();
+        }
+        return event + "/" + callback.getClass().getName();
+    }
+
+    private static void record(Map<String, Counters> metrics, String name, long start, TriState result) {
+        record(metrics, name, start, result != null && result != TriState.DEFAULT, result);
+    }
+
+    private static void record(Map<String, Counters> metrics, String name, long start, boolean hit, TriState result) {
+        recordNanos(metrics, name, System.nanoTime() - start, hit, result);
+    }
+
+    private static void recordNanos(Map<String, Counters> metrics, String name, long nanos, boolean hit, TriState result) {
+        Counters counters = metrics.get(name);
+        if (counters == null) {
+            counters = metrics.computeIfAbsent(name, n -> new Counters());
+        }
+        counters.record(nanos, hit, result);
+    }
+
+    private static List<Entry> snapshot(Map<String, Counters> metrics) {
+        List<Entry> entries = new ArrayList<>(metrics.size());
+        metrics.forEach((name, counters) -> entries.add(counters.snapshot(name)));
+        entries.sort(Comparator.comparingLong(Entry::calls).reversed());
+        return entries;
+    }
+
+    private static void dumpCsv(Appendable out, String type, List<Entry> entries) throws IOException {
+        for (Entry entry : entries) {
+            out.append(type).append(',')
+                    .append('"').append(entry.name().replace("\"", "\"\"")).append('"').append(',')
+                    .append(Long.toString(entry.calls())).append(',')
+                    .append(Long.toString(entry.hits())).append(',')
+                    .append(Long.toString(entry.misses())).append(',')
+                    .append(Long.toString(entry.trueResults())).append(',')
+                    .append(Long.toString(entry.falseResults())).append(',')
+                    .append(Long.toString(entry.totalNanos())).append(',')
+                    .append(Long.toString(entry.percentileNanos(0.5))).append(',')
+                    .append(Long.toString(entry.percentileNanos(0.99))).append('\n');
+        }
+    }
+
+    private static void dumpJson(Appendable out, String type, List<Entry> entries) throws IOException {
+        out.append('"').append(type).append("\":[");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (i != 0) {
+                out.append(',');
+            }
+            out.append("{\"name\":\"").append(entry.name().replace("\\", "\\\\").replace("\"", "\\\"")).append('"')
+                    .append(",\"calls\":").append(Long.toString(entry.calls()))
+                    .append(",\"hits\":").append(Long.toString(entry.hits()))
+                    .append(",\"misses\":").append(Long.toString(entry.misses()))
+                    .append(",\"true\":").append(Long.toString(entry.trueResults()))
+                    .append(",\"false\":").append(Long.toString(entry.falseResults()))
+                    .append(",\"totalNanos\":").append(Long.toString(entry.totalNanos()))
+                    .append(",\"latencyHistogram\":[");
+            long[] histogram = entry.latencyHistogram();
+            for (int j = 0; j < histogram.length; j++) {
+                if (j != 0) {
+                    out.append(',');
+                }
+                out.append(Long.toString(histogram[j]));
+            }
+            out.append("]}");
+        }
+        out.append(']');
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder trueResults = new LongAdder();
+        private final LongAdder falseResults = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+        void record(long nanos, boolean hit, TriState result) {
+            this.calls.increment();
+            if (hit) {
+                this.hits.increment();
+            }
+            if (result == TriState.TRUE) {
+                this.trueResults.increment();
+            } else if (result == TriState.FALSE) {
+                this.falseResults.increment();
+            }
+            this.totalNanos.add(nanos);
+            int bucket = Math.min(HISTOGRAM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+            this.histogram.incrementAndGet(bucket);
+        }
+
+        Entry snapshot(String name) {
+            long calls = this.calls.sum();
+            long hits = this.hits.sum();
+            long trueResults = this.trueResults.sum();
+            long falseResults = this.falseResults.sum();
+            long[] histogram = new long[HISTOGRAM_BUCKETS];
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                histogram[i] = this.histogram.get(i);
+            }
+            return new Entry(name, calls, hits, Math.max(0, calls - hits), trueResults, falseResults, this.totalNanos.sum(), histogram);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An interned, pre-parsed permission node.
+ *
+ * <p>Nodes are obtained using {@link #of(String)}, which returns the same instance for the
+ * same permission string for as long as that instance is in use. Mods that check the same
+ * permission frequently should create the node once and hold on to it.</p>
+ *
+ * <p>As instances are interned, nodes can be compared by identity. Interning is weak: a node
+ * which is no longer referenced anywhere may be discarded, and a new instance created the
+ * next time it is requested.</p>
+ */
+public final class PermissionNode {
+    private static final ConcurrentMap<String, InternedReference> INTERNED = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<PermissionNode> COLLECTED = new ReferenceQueue<>();
+
+    /**
+     * Gets the interned node for the given {@code permission}.
+     *
+     * @param permission the permission
+     * @return the node
+     */
+    public static @NotNull PermissionNode of(@NotNull String permission) {
+        Objects.requireNonNull(permission, "permission");
+        InternedReference reference = INTERNED.get(permission);
+        PermissionNode node;
+        if (reference != null && (node = reference.get()) != null) {
+            return node;
+        }
+
+        expungeCollected();
+        PermissionNode[] result = new PermissionNode[1];
+        INTERNED.compute(permission, (p, existing) -> {
+            PermissionNode existingNode = existing == null ? null : existing.get();
+            if (existingNode != null) {
+                result[0] = existingNode;
+                return existing;
+            }
+            result[0] = new PermissionNode(p);
+            return new InternedReference(result[0]);
+        });
+        return result[0];
+    }
+
+    private static void expungeCollected() {
+        Reference<? extends PermissionNode> reference;
+        while ((reference = COLLECTED.poll()) != null) {
+            INTERNED.remove(((InternedReference) reference).permission, reference);
+        }
+    }
+
+    // nodes are interned weakly, so that dynamic permissions (e.g. "warp.<name>") aren't kept forever
+    private static final class InternedReference extends WeakReference<PermissionNode> {
+        private final String permission;
+
+        InternedReference(PermissionNode node) {
+            super(node, COLLECTED);
+            this.permission = node.permission;
+        }
+    }
+
+    private final String permission;
+    private final List<String> segments;
+    private final int hashCode;
+
+    // state cached on the node itself. As nodes are interned weakly, this is lost if the node is
+    // collected, and rebuilt on the next check against the new instance: indexedCallbacks is
+    // recomputed lazily by PermissionCheckIndex, but registered is only ever set when the node is
+    // declared. This works because RegisteredPermission.REGISTERED holds registered nodes strongly,
+    // so a node with registered = true is never collected and replaced.
+
+    // the permission check callbacks which apply to this node, see PermissionCheckIndex
+    volatile PermissionCheckIndex.Callbacks indexedCallbacks = null;
+
+    // if the node has been declared using Permissions#register, see PermissionCheckIndex
+    volatile boolean registered = false;
+
+    private PermissionNode(String permission) {
+        this.permission = permission;
+        this.segments = List.of(permission.split("\\.", -1));
+        this.hashCode = permission.hashCode();
+    }
+
+    /**
+     * Gets the permission string this node represents.
+     *
+     * @return the permission
+     */
+    public @NotNull String getPermission() {
+        return this.permission;
+    }
+
+    /**
+     * Gets the segments of the permission, split on {@code '.'}.
+     *
+     * @return the segments
+     */
+    public @NotNull List<String> getSegments() {
+        return this.segments;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return this.permission;
+    }
+}
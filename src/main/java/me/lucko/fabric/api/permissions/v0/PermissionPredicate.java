@@ -0,0 +1,147 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.permissions.Permission;
+import net.minecraft.server.permissions.PermissionLevel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.function.Predicate;
+
+/**
+ * A compiled permission check predicate, as returned by {@link Permissions#require(String)}.
+ *
+ * <p>The permission node and fallback are resolved once, when the predicate is created.</p>
+ *
+ * <p>Brigadier evaluates the {@code requires} predicate of every command node when the command
+ * tree is sent to a player, using the same {@link CommandSourceStack} instance each time. The
+ * result for the most recent source is therefore remembered until the end of the current server
+ * tick, so a predicate shared by many command nodes only performs the check once per pass.</p>
+ */
+public final class PermissionPredicate implements Predicate<CommandSourceStack> {
+    private final PermissionNode node;
+    private final boolean defaultValue;
+    private final @Nullable PermissionLevel defaultRequiredLevel;
+    private final @Nullable Permission defaultPermission;
+
+    // the source of the most recent check made by any predicate, shared so that a pass over
+    // the command tree only creates one reference
+    private static volatile WeakReference<CommandSourceStack> lastSource = new WeakReference<>(null);
+
+    // the most recent result, guarded by this
+    private WeakReference<CommandSourceStack> memoSource = null;
+    private int memoTick;
+    private boolean memoResult;
+
+    PermissionPredicate(PermissionNode node, boolean defaultValue) {
+        this.node = node;
+        this.defaultValue = defaultValue;
+        this.defaultRequiredLevel = null;
+        this.defaultPermission = null;
+        CommandTreeRefresher.registerCommandNode(node);
+    }
+
+    PermissionPredicate(PermissionNode node, PermissionLevel defaultRequiredLevel) {
+        this.node = node;
+        this.defaultValue = false;
+        this.defaultRequiredLevel = defaultRequiredLevel;
+        this.defaultPermission = Util.permissionForLevel(defaultRequiredLevel);
+        CommandTreeRefresher.registerCommandNode(node);
+    }
+
+    /**
+     * Gets the permission node checked by this predicate.
+     *
+     * @return the permission node
+     */
+    public @NotNull PermissionNode getNode() {
+        return this.node;
+    }
+
+    /**
+     * Gets the permission level required if the permission is not set, or null if
+     * a fixed default value is used instead.
+     *
+     * @return the default required permission level
+     */
+    public @Nullable PermissionLevel getDefaultRequiredLevel() {
+        return this.defaultRequiredLevel;
+    }
+
+    @Override
+    public boolean test(CommandSourceStack source) {
+        MinecraftServer server = source.getServer();
+        if (server == null) {
+            return evaluate(source);
+        }
+
+        int tick = server.getTickCount();
+        WeakReference<CommandSourceStack> sourceReference = sourceReference(source);
+        synchronized (this) {
+            if (this.memoSource == sourceReference && this.memoTick == tick) {
+                return this.memoResult;
+            }
+        }
+
+        boolean result = evaluate(source);
+        synchronized (this) {
+            this.memoSource = sourceReference;
+            this.memoTick = tick;
+            this.memoResult = result;
+        }
+        return result;
+    }
+
+    private static WeakReference<CommandSourceStack> sourceReference(CommandSourceStack source) {
+        WeakReference<CommandSourceStack> reference = lastSource;
+        if (reference.get() != source) {
+            reference = new WeakReference<>(source);
+            lastSource = reference;
+        }
+        return reference;
+    }
+
+    private boolean evaluate(CommandSourceStack source) {
+        TriState state = Util.getPermissionValue(source, this.node);
+        if (state != TriState.DEFAULT) {
+            return state.get();
+        }
+        if (this.defaultPermission != null) {
+            return source.permissions().hasPermission(this.defaultPermission);
+        }
+        return this.defaultValue;
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionPredicate(" + this.node + ")";
+    }
+}
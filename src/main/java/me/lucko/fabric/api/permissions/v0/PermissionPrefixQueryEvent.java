@@ -0,0 +1,72 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.SharedSuggestionProvider;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Permissions query event for all permissions under a prefix, for {@link SharedSuggestionProvider}s.
+ *
+ * <p>Listeners should return the state of each permission starting with the prefix that is
+ * set for the source. As with the {@link PermissionCheckEvent}, the state returned by the
+ * earliest listener takes precedence, and {@link TriState#DEFAULT} entries are ignored.</p>
+ *
+ * <p>Entries are used exactly as returned. Providers should resolve wildcards and negations
+ * themselves, returning each concrete permission under the prefix: a wildcard entry (e.g.
+ * {@code "mymod.kits.*"}) is listed as a permission in its own right, and an entry set to
+ * {@link TriState#FALSE} is only left out of the result, without removing permissions matched
+ * by other entries.</p>
+ *
+ * <p>If no listener is registered, {@link Permissions#getGrantedUnder(SharedSuggestionProvider, String)}
+ * checks each registered permission under the prefix instead.</p>
+ */
+public interface PermissionPrefixQueryEvent {
+
+    Event<PermissionPrefixQueryEvent> EVENT = EventFactory.createArrayBacked(PermissionPrefixQueryEvent.class, (callbacks) -> {
+        Util.prefixQueryListeners = callbacks.length != 0;
+        return (source, prefix) -> {
+            Map<String, TriState> results = new LinkedHashMap<>();
+            for (PermissionPrefixQueryEvent callback : callbacks) {
+                callback.onPermissionQuery(source, prefix).forEach((permission, state) -> {
+                    if (state != TriState.DEFAULT) {
+                        results.putIfAbsent(permission, state);
+                    }
+                });
+            }
+            return results;
+        };
+    });
+
+    @NotNull Map<String, TriState> onPermissionQuery(@NotNull SharedSuggestionProvider source, @NotNull String prefix);
+
+}
@@ -0,0 +1,51 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Event fired when a permission is declared using
+ * {@link Permissions#register(String, net.minecraft.server.permissions.PermissionLevel, String)}.
+ *
+ * <p>Permission providers can read the permissions registered so far using
+ * {@link Permissions#getRegisteredPermissions()}, and listen to this event for those
+ * registered afterwards.</p>
+ */
+public interface PermissionRegisteredEvent {
+
+    Event<PermissionRegisteredEvent> EVENT = EventFactory.createArrayBacked(PermissionRegisteredEvent.class, (callbacks) -> (permission) -> {
+        for (PermissionRegisteredEvent callback : callbacks) {
+            callback.onPermissionRegistered(permission);
+        }
+    });
+
+    void onPermissionRegistered(@NotNull RegisteredPermission permission);
+
+}
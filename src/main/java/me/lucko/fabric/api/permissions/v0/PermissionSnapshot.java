@@ -0,0 +1,204 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * An immutable snapshot of a subject's permissions and options.
+ *
+ * <p>Snapshots are created by permission providers, and must be safe to read concurrently from
+ * any thread. Reads are answered synchronously, making snapshots suitable for use by async tasks
+ * that would otherwise have to make an offline check for each read.</p>
+ *
+ * <p>Providers should {@link #publish(PermissionSnapshot) publish} a new snapshot whenever a
+ * subject's data is loaded or changes, and {@link #discard(UUID) discard} it when the data is
+ * unloaded. Snapshots for subjects that are not currently published can be requested from
+ * providers using {@link #load(UUID)}.</p>
+ */
+public interface PermissionSnapshot {
+
+    /**
+     * Gets the most recently published snapshot for the given subject, if any.
+     *
+     * @param uuid the uuid of the subject
+     * @return the snapshot, or null if none is published
+     */
+    static @Nullable PermissionSnapshot get(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid");
+        return SnapshotRegistry.get(uuid);
+    }
+
+    /**
+     * Gets a snapshot for the given (potentially) offline subject.
+     *
+     * <p>If a snapshot is published for the subject, it is returned straight away. Otherwise
+     * it is requested from providers using the {@link PermissionSnapshotRequestEvent}.</p>
+     *
+     * @param uuid the uuid of the subject
+     * @return the snapshot, or an empty optional if no provider was able to supply one
+     */
+    static @NotNull CompletableFuture<Optional<PermissionSnapshot>> load(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid");
+        PermissionSnapshot snapshot = SnapshotRegistry.get(uuid);
+        if (snapshot != null) {
+            return CompletableFuture.completedFuture(Optional.of(snapshot));
+        }
+        return PermissionSnapshotRequestEvent.EVENT.invoker().onSnapshotRequest(uuid);
+    }
+
+    /**
+     * Publishes a snapshot, replacing any previously published snapshot for the same subject.
+     *
+     * <p>This method is intended to be called by permission providers.</p>
+     *
+     * @param snapshot the snapshot
+     */
+    static void publish(@NotNull PermissionSnapshot snapshot) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        SnapshotRegistry.publish(snapshot);
+    }
+
+    /**
+     * Discards the published snapshot for the given subject.
+     *
+     * <p>This method is intended to be called by permission providers.</p>
+     *
+     * @param uuid the uuid of the subject
+     */
+    static void discard(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid");
+        SnapshotRegistry.discard(uuid);
+    }
+
+    /**
+     * Subscribes to snapshots published for the given subject.
+     *
+     * <p>The {@code listener} is called with each newly published snapshot, on the thread
+     * that published it. Exceptions thrown by the listener are logged, and do not prevent
+     * the snapshot from being published or other listeners from being called.</p>
+     *
+     * @param uuid the uuid of the subject
+     * @param listener the listener
+     * @return a subscription, used to unsubscribe the listener
+     */
+    static @NotNull Subscription subscribe(@NotNull UUID uuid, @NotNull Consumer<? super PermissionSnapshot> listener) {
+        Objects.requireNonNull(uuid, "uuid");
+        Objects.requireNonNull(listener, "listener");
+        return SnapshotRegistry.subscribe(uuid, listener);
+    }
+
+    /**
+     * Gets the unique id of the subject this snapshot belongs to.
+     *
+     * @return the uuid of the subject
+     */
+    @NotNull UUID getUniqueId();
+
+    /**
+     * Gets the {@link TriState state} of a {@code permission}.
+     *
+     * @param permission the permission
+     * @return the state of the permission
+     */
+    @NotNull TriState getPermissionValue(@NotNull String permission);
+
+    /**
+     * Gets the {@link TriState state} of a {@code permission}.
+     *
+     * <p>Snapshots which store permissions in a form that can make use of the pre-parsed
+     * {@link PermissionNode#getSegments() segments} may override this method.</p>
+     *
+     * @param permission the permission
+     * @return the state of the permission
+     */
+    default @NotNull TriState getPermissionValue(@NotNull PermissionNode permission) {
+        return getPermissionValue(permission.getPermission());
+    }
+
+    /**
+     * Gets the value of an option.
+     *
+     * @param key the option key
+     * @return the option value
+     */
+    @NotNull Optional<String> getOption(@NotNull String key);
+
+    /**
+     * Performs a permission check, falling back to the {@code defaultValue} if the resultant
+     * state is {@link TriState#DEFAULT}.
+     *
+     * @param permission the permission to check
+     * @param defaultValue the default value to use if nothing has been set
+     * @return the result of the permission check
+     */
+    default boolean check(@NotNull String permission, boolean defaultValue) {
+        return getPermissionValue(permission).orElse(defaultValue);
+    }
+
+    /**
+     * Performs a permission check, falling back to {@code false} if the resultant state
+     * is {@link TriState#DEFAULT}.
+     *
+     * @param permission the permission to check
+     * @return the result of the permission check
+     */
+    default boolean check(@NotNull String permission) {
+        return getPermissionValue(permission).orElse(false);
+    }
+
+    /**
+     * Performs a permission check, falling back to the {@code defaultValue} if the resultant
+     * state is {@link TriState#DEFAULT}.
+     *
+     * @param permission the permission to check
+     * @param defaultValue the default value to use if nothing has been set
+     * @return the result of the permission check
+     */
+    default boolean check(@NotNull PermissionNode permission, boolean defaultValue) {
+        return getPermissionValue(permission).orElse(defaultValue);
+    }
+
+    /**
+     * Performs a permission check, falling back to {@code false} if the resultant state
+     * is {@link TriState#DEFAULT}.
+     *
+     * @param permission the permission to check
+     * @return the result of the permission check
+     */
+    default boolean check(@NotNull PermissionNode permission) {
+        return getPermissionValue(permission).orElse(false);
+    }
+
+}
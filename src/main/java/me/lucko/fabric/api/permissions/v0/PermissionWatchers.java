@@ -0,0 +1,151 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+final class PermissionWatchers {
+    private static final Map<UUID, List<Watcher>> WATCHERS = new ConcurrentHashMap<>();
+
+    private PermissionWatchers() {
+    }
+
+    static Subscription watch(ServerPlayer player, PermissionNode node, Consumer<? super TriState> listener) {
+        Watcher watcher = new Watcher(player.getUUID(), node, player.level().getServer(), listener);
+        watcher.update(watcher.nextRequest(), Permissions.getPermissionValue(player, node));
+        return register(watcher);
+    }
+
+    static Subscription watch(UUID uuid, PermissionNode node, Consumer<? super TriState> listener) {
+        Watcher watcher = new Watcher(uuid, node, null, listener);
+        Subscription subscription = register(watcher);
+        watcher.refresh();
+        return subscription;
+    }
+
+    private static Subscription register(Watcher watcher) {
+        WATCHERS.compute(watcher.uuid, (u, watchers) -> {
+            if (watchers == null) {
+                watchers = new CopyOnWriteArrayList<>();
+            }
+            watchers.add(watcher);
+            return watchers;
+        });
+        return () -> unregister(watcher);
+    }
+
+    private static void unregister(Watcher watcher) {
+        WATCHERS.computeIfPresent(watcher.uuid, (u, watchers) -> {
+            watchers.remove(watcher);
+            return watchers.isEmpty() ? null : watchers;
+        });
+    }
+
+    static void invalidateInternal(@Nullable UUID uuid) {
+        if (WATCHERS.isEmpty()) {
+            return;
+        }
+        if (uuid == null) {
+            for (List<Watcher> watchers : WATCHERS.values()) {
+                watchers.forEach(Watcher::refresh);
+            }
+        } else {
+            List<Watcher> watchers = WATCHERS.get(uuid);
+            if (watchers != null) {
+                watchers.forEach(Watcher::refresh);
+            }
+        }
+    }
+
+    private static final class Watcher {
+        private final UUID uuid;
+        private final PermissionNode node;
+        private final @Nullable MinecraftServer server;
+        private final Consumer<? super TriState> listener;
+
+        // guarded by this
+        private long requested = 0;
+        private long applied = 0;
+        private @Nullable TriState state = null;
+
+        Watcher(UUID uuid, PermissionNode node, @Nullable MinecraftServer server, Consumer<? super TriState> listener) {
+            this.uuid = uuid;
+            this.node = node;
+            this.server = server;
+            this.listener = listener;
+        }
+
+        synchronized long nextRequest() {
+            return ++this.requested;
+        }
+
+        void refresh() {
+            long request = nextRequest();
+            if (this.server != null) {
+                // online checks are re-evaluated on the server thread, against the current player entity.
+                // nothing re-evaluates the watch when the player joins again, so it ends at disconnect
+                this.server.execute(() -> {
+                    ServerPlayer player = this.server.getPlayerList().getPlayer(this.uuid);
+                    if (player != null) {
+                        update(request, Permissions.getPermissionValue(player, this.node));
+                    } else {
+                        unregister(this);
+                    }
+                });
+            } else {
+                Permissions.getPermissionValue(this.uuid, this.node.getPermission()).thenAccept(state -> update(request, state));
+            }
+        }
+
+        void update(long request, TriState state) {
+            TriState previous;
+            synchronized (this) {
+                // ignore results which arrive after those of a later request
+                if (request < this.applied) {
+                    return;
+                }
+                this.applied = request;
+                previous = this.state;
+                this.state = state;
+            }
+            if (previous != null && previous != state) {
+                this.listener.accept(state);
+            }
+        }
+    }
+
+}
@@ -28,18 +28,27 @@ package me.lucko.fabric.api.permissions.v0;
 import com.mojang.authlib.GameProfile;
 import net.fabricmc.fabric.api.util.TriState;
 import net.minecraft.commands.SharedSuggestionProvider;
-import net.minecraft.server.permissions.Permission;
 import net.minecraft.server.permissions.PermissionLevel;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.players.NameAndId;
 import net.minecraft.commands.CommandSourceStack;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
@@ -57,7 +66,20 @@ public interface Permissions {
     static @NotNull TriState getPermissionValue(@NotNull SharedSuggestionProvider source, @NotNull String permission) {
         Objects.requireNonNull(source, "source");
         Objects.requireNonNull(permission, "permission");
-        return PermissionCheckEvent.EVENT.invoker().onPermissionCheck(source, permission);
+        return getPermissionValue(source, PermissionNode.of(permission));
+    }
+
+    /**
+     * Gets the {@link TriState state} of a {@code permission} for the given source.
+     *
+     * @param source the source
+     * @param permission the permission
+     * @return the state of the permission
+     */
+    static @NotNull TriState getPermissionValue(@NotNull SharedSuggestionProvider source, @NotNull PermissionNode permission) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(permission, "permission");
+        return Util.getPermissionValue(source, permission);
     }
 
     /**
@@ -98,7 +120,8 @@ public interface Permissions {
      * @return the result of the permission check
      */
     static boolean check(@NotNull SharedSuggestionProvider source, @NotNull String permission, @NotNull PermissionLevel defaultRequiredLevel) {
-        return getPermissionValue(source, permission).orElseGet(() -> source.permissions().hasPermission(new Permission.HasCommandLevel(defaultRequiredLevel)));
+        Objects.requireNonNull(permission, "permission");
+        return check(source, PermissionNode.of(permission), defaultRequiredLevel);
     }
 
     /**
@@ -113,6 +136,224 @@ public interface Permissions {
         return getPermissionValue(source, permission).orElse(false);
     }
 
+    /**
+     * Performs a permission check, falling back to the {@code defaultValue} if the resultant
+     * state is {@link TriState#DEFAULT}.
+     *
+     * @param source the source to perform the check for
+     * @param permission the permission to check
+     * @param defaultValue the default value to use if nothing has been set
+     * @return the result of the permission check
+     */
+    static boolean check(@NotNull SharedSuggestionProvider source, @NotNull PermissionNode permission, boolean defaultValue) {
+        return getPermissionValue(source, permission).orElse(defaultValue);
+    }
+
+    /**
+     * Performs a permission check, falling back to requiring the {@code defaultRequiredLevel}
+     * if the resultant state is {@link TriState#DEFAULT}.
+     *
+     * @param source the source to perform the check for
+     * @param permission the permission to check
+     * @param defaultRequiredLevel the required permission level to check for as a fallback
+     * @return the result of the permission check
+     */
+    static boolean check(@NotNull SharedSuggestionProvider source, @NotNull PermissionNode permission, @NotNull PermissionLevel defaultRequiredLevel) {
+        TriState state = getPermissionValue(source, permission);
+        if (state != TriState.DEFAULT) {
+            return state.get();
+        }
+        return source.permissions().hasPermission(Util.permissionForLevel(defaultRequiredLevel));
+    }
+
+    /**
+     * Performs a permission check, falling back to {@code false} if the resultant state
+     * is {@link TriState#DEFAULT}.
+     *
+     * @param source the source to perform the check for
+     * @param permission the permission to check
+     * @return the result of the permission check
+     */
+    static boolean check(@NotNull SharedSuggestionProvider source, @NotNull PermissionNode permission) {
+        return getPermissionValue(source, permission).orElse(false);
+    }
+
+    /**
+     * Performs a permission check which may be answered asynchronously, falling back to the
+     * {@code defaultValue} if the resultant state is {@link TriState#DEFAULT}.
+     *
+     * <p>The synchronous check events are called first, on the calling thread. If none of them
+     * return a result, the {@link AsyncPermissionCheckEvent} is called.</p>
+     *
+     * <p>The returned future is always completed using the given {@code executor}, even if
+     * the result is available immediately.</p>
+     *
+     * @param source the source to perform the check for
+     * @param permission the permission to check
+     * @param defaultValue the default value to use if nothing has been set
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> checkAsync(@NotNull SharedSuggestionProvider source, @NotNull String permission, boolean defaultValue, @NotNull Executor executor) {
+        Objects.requireNonNull(permission, "permission");
+        return checkAsync(source, PermissionNode.of(permission), defaultValue, executor);
+    }
+
+    /**
+     * Performs a permission check which may be answered asynchronously, falling back to requiring
+     * the {@code defaultRequiredLevel} if the resultant state is {@link TriState#DEFAULT}.
+     *
+     * <p>The synchronous check events are called first, on the calling thread. If none of them
+     * return a result, the {@link AsyncPermissionCheckEvent} is called.</p>
+     *
+     * <p>The returned future is always completed using the given {@code executor}, even if
+     * the result is available immediately.</p>
+     *
+     * @param source the source to perform the check for
+     * @param permission the permission to check
+     * @param defaultRequiredLevel the required permission level to check for as a fallback
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> checkAsync(@NotNull SharedSuggestionProvider source, @NotNull String permission, @NotNull PermissionLevel defaultRequiredLevel, @NotNull Executor executor) {
+        Objects.requireNonNull(permission, "permission");
+        return checkAsync(source, PermissionNode.of(permission), defaultRequiredLevel, executor);
+    }
+
+    /**
+     * Performs a permission check which may be answered asynchronously, falling back to the
+     * {@code defaultValue} if the resultant state is {@link TriState#DEFAULT}.
+     *
+     * <p>The synchronous check events are called first, on the calling thread. If none of them
+     * return a result, the {@link AsyncPermissionCheckEvent} is called.</p>
+     *
+     * <p>The returned future is always completed using the given {@code executor}, even if
+     * the result is available immediately.</p>
+     *
+     * @param source the source to perform the check for
+     * @param permission the permission to check
+     * @param defaultValue the default value to use if nothing has been set
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> checkAsync(@NotNull SharedSuggestionProvider source, @NotNull PermissionNode permission, boolean defaultValue, @NotNull Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        return Util.getPermissionValueAsync(source, permission).thenApplyAsync(state -> state.orElse(defaultValue), executor);
+    }
+
+    /**
+     * Performs a permission check which may be answered asynchronously, falling back to requiring
+     * the {@code defaultRequiredLevel} if the resultant state is {@link TriState#DEFAULT}.
+     *
+     * <p>The synchronous check events are called first, on the calling thread. If none of them
+     * return a result, the {@link AsyncPermissionCheckEvent} is called.</p>
+     *
+     * <p>The returned future is always completed using the given {@code executor}, even if
+     * the result is available immediately.</p>
+     *
+     * @param source the source to perform the check for
+     * @param permission the permission to check
+     * @param defaultRequiredLevel the required permission level to check for as a fallback
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> checkAsync(@NotNull SharedSuggestionProvider source, @NotNull PermissionNode permission, @NotNull PermissionLevel defaultRequiredLevel, @NotNull Executor executor) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(defaultRequiredLevel, "defaultRequiredLevel");
+        Objects.requireNonNull(executor, "executor");
+        // resolved up-front, so the source isn't touched off the calling thread
+        boolean fallback = source.permissions().hasPermission(Util.permissionForLevel(defaultRequiredLevel));
+        return Util.getPermissionValueAsync(source, permission).thenApplyAsync(state -> state.orElse(fallback), executor);
+    }
+
+    /**
+     * Gets the {@link TriState states} of many {@code permissions} for the given source.
+     *
+     * @param source the source
+     * @param permissions the permissions
+     * @return the states of the permissions, in the same order as the input
+     */
+    static @NotNull TriState @NotNull [] getPermissionValues(@NotNull SharedSuggestionProvider source, @NotNull Collection<String> permissions) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(permissions, "permissions");
+
+        PermissionNode[] nodes = new PermissionNode[permissions.size()];
+        int i = 0;
+        for (String permission : permissions) {
+            nodes[i++] = PermissionNode.of(permission);
+        }
+
+        return Util.getPermissionValues(source, nodes);
+    }
+
+    /**
+     * Performs a permission check for many {@code permissions} at once, falling back to
+     * {@code false} for those whose resultant state is {@link TriState#DEFAULT}.
+     *
+     * @param source the source to perform the check for
+     * @param permissions the permissions to check
+     * @return the results of the permission checks, where the bit at the index of each permission
+     *         is set if the check passed
+     */
+    static @NotNull BitSet checkAll(@NotNull SharedSuggestionProvider source, @NotNull Collection<String> permissions) {
+        return Util.toBitSet(getPermissionValues(source, permissions));
+    }
+
+    /**
+     * Gets the permissions starting with the given {@code prefix} which are granted to the source.
+     *
+     * <p>Permissions are listed by the provider using the {@link PermissionPrefixQueryEvent}.
+     * Entries are taken as the provider returns them: a wildcard entry (e.g.
+     * {@code "mymod.kits.*"}) is returned as-is rather than expanded, and negated entries are
+     * left out. If no provider listens to the event, each
+     * {@link #getRegisteredPermissions() registered permission} under the prefix is checked
+     * instead.</p>
+     *
+     * <p>Permissions which would only be granted by a fallback (e.g. a permission level) are
+     * not included.</p>
+     *
+     * @param source the source
+     * @param prefix the prefix, e.g. {@code "mymod.kits."}
+     * @return the granted permissions
+     */
+    static @NotNull Set<String> getGrantedUnder(@NotNull SharedSuggestionProvider source, @NotNull String prefix) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(prefix, "prefix");
+        return Util.getGrantedUnder(source, prefix);
+    }
+
+    /**
+     * Declares a permission used by the mod, along with the permission level required if
+     * it is not set, and a description.
+     *
+     * <p>Permissions should be registered once, during startup. Registering the same
+     * permission again with the same default returns the existing handle.</p>
+     *
+     * @param permission the permission
+     * @param defaultRequiredLevel the required permission level to check for as a fallback
+     * @param description a description of the permission
+     * @return a handle for checking the permission
+     * @throws IllegalStateException if the permission is already registered with a different default
+     */
+    static @NotNull RegisteredPermission register(@NotNull String permission, @NotNull PermissionLevel defaultRequiredLevel, @NotNull String description) {
+        Objects.requireNonNull(permission, "permission");
+        Objects.requireNonNull(defaultRequiredLevel, "defaultRequiredLevel");
+        Objects.requireNonNull(description, "description");
+        return RegisteredPermission.register(PermissionNode.of(permission), defaultRequiredLevel, description);
+    }
+
+    /**
+     * Gets all permissions declared using {@link #register(String, PermissionLevel, String)}.
+     *
+     * <p>This method is intended to be called by permission providers, which should also
+     * listen to the {@link PermissionRegisteredEvent} for permissions registered later.</p>
+     *
+     * @return the registered permissions
+     */
+    static @NotNull Collection<RegisteredPermission> getRegisteredPermissions() {
+        return RegisteredPermission.getAll();
+    }
+
     /**
      * Creates a predicate which returns the result of performing a permission check,
      * falling back to the {@code defaultValue} if the resultant state is {@link TriState#DEFAULT}.
@@ -123,7 +364,7 @@ public interface Permissions {
      */
     static @NotNull Predicate<CommandSourceStack> require(@NotNull String permission, boolean defaultValue) {
         Objects.requireNonNull(permission, "permission");
-        return player -> check(player, permission, defaultValue);
+        return new PermissionPredicate(PermissionNode.of(permission), defaultValue);
     }
 
     /**
@@ -139,8 +380,7 @@ public interface Permissions {
     @Deprecated
     static @NotNull Predicate<CommandSourceStack> require(@NotNull String permission, int defaultRequiredLevel) {
         Objects.requireNonNull(permission, "permission");
-        PermissionLevel level = Util.permissionLevelFromInt(defaultRequiredLevel);
-        return player -> check(player, permission, level);
+        return new PermissionPredicate(PermissionNode.of(permission), Util.permissionLevelFromInt(defaultRequiredLevel));
     }
 
     /**
@@ -155,7 +395,7 @@ public interface Permissions {
     static @NotNull Predicate<CommandSourceStack> require(@NotNull String permission, PermissionLevel defaultRequiredLevel) {
         Objects.requireNonNull(permission, "permission");
         Objects.requireNonNull(defaultRequiredLevel, "defaultRequiredLevel");
-        return player -> check(player, permission, defaultRequiredLevel);
+        return new PermissionPredicate(PermissionNode.of(permission), defaultRequiredLevel);
     }
 
     /**
@@ -166,8 +406,46 @@ public interface Permissions {
      * @return a predicate that will perform the permission check
      */
     static @NotNull Predicate<CommandSourceStack> require(@NotNull String permission) {
+        return require(permission, false);
+    }
+
+    /**
+     * Creates a predicate which returns the result of performing a permission check,
+     * falling back to the {@code defaultValue} if the resultant state is {@link TriState#DEFAULT}.
+     *
+     * @param permission the permission to check
+     * @param defaultValue the default value to use if nothing has been set
+     * @return a predicate that will perform the permission check
+     */
+    static @NotNull Predicate<CommandSourceStack> require(@NotNull PermissionNode permission, boolean defaultValue) {
         Objects.requireNonNull(permission, "permission");
-        return player -> check(player, permission);
+        return new PermissionPredicate(permission, defaultValue);
+    }
+
+    /**
+     * Creates a predicate which returns the result of performing a permission check,
+     * falling back to requiring the {@code defaultRequiredLevel} if the resultant state is
+     * {@link TriState#DEFAULT}.
+     *
+     * @param permission the permission to check
+     * @param defaultRequiredLevel the required permission level to check for as a fallback
+     * @return a predicate that will perform the permission check
+     */
+    static @NotNull Predicate<CommandSourceStack> require(@NotNull PermissionNode permission, @NotNull PermissionLevel defaultRequiredLevel) {
+        Objects.requireNonNull(permission, "permission");
+        Objects.requireNonNull(defaultRequiredLevel, "defaultRequiredLevel");
+        return new PermissionPredicate(permission, defaultRequiredLevel);
+    }
+
+    /**
+     * Creates a predicate which returns the result of performing a permission check,
+     * falling back to {@code false} if the resultant state is {@link TriState#DEFAULT}.
+     *
+     * @param permission the permission to check
+     * @return a predicate that will perform the permission check
+     */
+    static @NotNull Predicate<CommandSourceStack> require(@NotNull PermissionNode permission) {
+        return require(permission, false);
     }
 
     /**
@@ -179,7 +457,8 @@ public interface Permissions {
      */
     static @NotNull TriState getPermissionValue(@NotNull Entity entity, @NotNull String permission) {
         Objects.requireNonNull(entity, "entity");
-        return getPermissionValue(Util.commandSourceFromEntity(entity), permission);
+        Objects.requireNonNull(permission, "permission");
+        return getPermissionValue(entity, PermissionNode.of(permission));
     }
 
     /**
@@ -192,8 +471,7 @@ public interface Permissions {
      * @return the result of the permission check
      */
     static boolean check(@NotNull Entity entity, @NotNull String permission, boolean defaultValue) {
-        Objects.requireNonNull(entity, "entity");
-        return check(Util.commandSourceFromEntity(entity), permission, defaultValue);
+        return getPermissionValue(entity, permission).orElse(defaultValue);
     }
 
     /**
@@ -208,8 +486,7 @@ public interface Permissions {
      */
     @Deprecated
     static boolean check(@NotNull Entity entity, @NotNull String permission, int defaultRequiredLevel) {
-        Objects.requireNonNull(entity, "entity");
-        return check(Util.commandSourceFromEntity(entity), permission, defaultRequiredLevel);
+        return check(entity, permission, Util.permissionLevelFromInt(defaultRequiredLevel));
     }
 
     /**
@@ -222,9 +499,8 @@ public interface Permissions {
      * @return the result of the permission check
      */
     static boolean check(@NotNull Entity entity, @NotNull String permission, PermissionLevel defaultRequiredLevel) {
-        Objects.requireNonNull(entity, "entity");
-        Objects.requireNonNull(defaultRequiredLevel, "permissionLevel");
-        return check(Util.commandSourceFromEntity(entity), permission, defaultRequiredLevel);
+        Objects.requireNonNull(permission, "permission");
+        return check(entity, PermissionNode.of(permission), defaultRequiredLevel);
     }
 
     /**
@@ -236,13 +512,71 @@ public interface Permissions {
      * @return the result of the permission check
      */
     static boolean check(@NotNull Entity entity, @NotNull String permission) {
+        return getPermissionValue(entity, permission).orElse(false);
+    }
+
+    /**
+     * Gets the {@link TriState state} of a {@code permission} for the given entity.
+     *
+     * @param entity the entity
+     * @param permission the permission
+     * @return the state of the permission
+     */
+    static @NotNull TriState getPermissionValue(@NotNull Entity entity, @NotNull PermissionNode permission) {
         Objects.requireNonNull(entity, "entity");
-        return check(Util.commandSourceFromEntity(entity), permission);
+        Objects.requireNonNull(permission, "permission");
+        return Util.getPermissionValue(entity, permission);
+    }
+
+    /**
+     * Performs a permission check, falling back to the {@code defaultValue} if the resultant
+     * state is {@link TriState#DEFAULT}.
+     *
+     * @param entity the entity to perform the check for
+     * @param permission the permission to check
+     * @param defaultValue the default value to use if nothing has been set
+     * @return the result of the permission check
+     */
+    static boolean check(@NotNull Entity entity, @NotNull PermissionNode permission, boolean defaultValue) {
+        return getPermissionValue(entity, permission).orElse(defaultValue);
+    }
+
+    /**
+     * Performs a permission check, falling back to requiring the {@code defaultRequiredLevel}
+     * if the resultant state is {@link TriState#DEFAULT}.
+     *
+     * @param entity the entity to perform the check for
+     * @param permission the permission to check
+     * @param defaultRequiredLevel the required permission level to check for as a fallback
+     * @return the result of the permission check
+     */
+    static boolean check(@NotNull Entity entity, @NotNull PermissionNode permission, @NotNull PermissionLevel defaultRequiredLevel) {
+        Objects.requireNonNull(defaultRequiredLevel, "defaultRequiredLevel");
+        TriState state = getPermissionValue(entity, permission);
+        if (state != TriState.DEFAULT) {
+            return state.get();
+        }
+        return Util.entityPermissions(entity).hasPermission(Util.permissionForLevel(defaultRequiredLevel));
+    }
+
+    /**
+     * Performs a permission check, falling back to {@code false} if the resultant state
+     * is {@link TriState#DEFAULT}.
+     *
+     * @param entity the entity to perform the check for
+     * @param permission the permission to check
+     * @return the result of the permission check
+     */
+    static boolean check(@NotNull Entity entity, @NotNull PermissionNode permission) {
+        return getPermissionValue(entity, permission).orElse(false);
     }
 
     /**
      * Gets the {@link TriState state} of a {@code permission} for the given (potentially) offline player.
      *
+     * <p>Concurrent requests for the same player and permission share a single provider
+     * lookup while it is in-flight.</p>
+     *
      * @param uuid the uuid of the player
      * @param permission the permission
      * @return the state of the permission
@@ -250,7 +584,101 @@ public interface Permissions {
     static @NotNull CompletableFuture<TriState> getPermissionValue(@NotNull UUID uuid, @NotNull String permission) {
         Objects.requireNonNull(uuid, "uuid");
         Objects.requireNonNull(permission, "permission");
-        return OfflinePermissionCheckEvent.EVENT.invoker().onPermissionCheck(uuid, permission);
+        return InFlightRequests.permission(uuid, permission, () -> OfflinePermissionCheckEvent.EVENT.invoker().onPermissionCheck(uuid, permission));
+    }
+
+    /**
+     * Gets the permissions starting with the given {@code prefix} which are granted to the
+     * (potentially) offline player.
+     *
+     * <p>Permissions are listed by the provider using the {@link OfflinePermissionPrefixQueryEvent}.
+     * Entries are taken as the provider returns them: a wildcard entry (e.g.
+     * {@code "mymod.kits.*"}) is returned as-is rather than expanded, and negated entries are
+     * left out. If no provider listens to the event, each
+     * {@link #getRegisteredPermissions() registered permission} under the prefix is checked
+     * instead.</p>
+     *
+     * @param uuid the uuid of the player
+     * @param prefix the prefix, e.g. {@code "mymod.kits."}
+     * @return the granted permissions
+     */
+    static @NotNull CompletableFuture<Set<String>> getGrantedUnder(@NotNull UUID uuid, @NotNull String prefix) {
+        Objects.requireNonNull(uuid, "uuid");
+        Objects.requireNonNull(prefix, "prefix");
+        return Util.getGrantedUnder(uuid, prefix);
+    }
+
+    /**
+     * Gets the {@link TriState state} of a {@code permission} for many (potentially) offline players.
+     *
+     * @param uuids the uuids of the players
+     * @param permission the permission
+     * @return the state of the permission for each player
+     */
+    static @NotNull CompletableFuture<Map<UUID, TriState>> getPermissionValues(@NotNull Collection<UUID> uuids, @NotNull String permission) {
+        Objects.requireNonNull(uuids, "uuids");
+        Objects.requireNonNull(permission, "permission");
+        List<UUID> players = List.copyOf(uuids);
+
+        return OfflineBatchPermissionCheckEvent.EVENT.invoker().onPermissionCheck(players, permission).thenCompose(answered -> {
+            Map<UUID, TriState> results = new HashMap<>(answered);
+            List<CompletableFuture<?>> pending = new ArrayList<>();
+            for (UUID uuid : players) {
+                if (answered.containsKey(uuid)) {
+                    continue;
+                }
+                CompletableFuture<TriState> future = getPermissionValue(uuid, permission);
+                if (future.isDone() && !future.isCompletedExceptionally()) {
+                    synchronized (results) {
+                        results.put(uuid, future.join());
+                    }
+                } else {
+                    pending.add(future.thenAccept(state -> {
+                        synchronized (results) {
+                            results.put(uuid, state);
+                        }
+                    }));
+                }
+            }
+
+            if (pending.isEmpty()) {
+                return CompletableFuture.completedFuture(results);
+            }
+            return CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).thenApply(v -> results);
+        });
+    }
+
+    /**
+     * Performs a permission check for many {@code permissions} at once, falling back to
+     * {@code false} for those whose resultant state is {@link TriState#DEFAULT}.
+     *
+     * @param uuid the uuid of the player to perform the check for
+     * @param permissions the permissions to check
+     * @return the results of the permission checks, where the bit at the index of each permission
+     *         is set if the check passed
+     */
+    static @NotNull CompletableFuture<BitSet> checkAll(@NotNull UUID uuid, @NotNull Collection<String> permissions) {
+        Objects.requireNonNull(uuid, "uuid");
+        Objects.requireNonNull(permissions, "permissions");
+
+        @SuppressWarnings("unchecked")
+        CompletableFuture<TriState>[] futures = new CompletableFuture[permissions.size()];
+        boolean done = true;
+        int i = 0;
+        for (String permission : permissions) {
+            CompletableFuture<TriState> future = getPermissionValue(uuid, permission);
+            done &= future.isDone();
+            futures[i++] = future;
+        }
+
+        if (done) {
+            try {
+                return CompletableFuture.completedFuture(Util.toBitSet(futures));
+            } catch (Throwable e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.allOf(futures).thenApply(v -> Util.toBitSet(futures));
     }
 
     /**
@@ -263,7 +691,25 @@ public interface Permissions {
      * @return the result of the permission check
      */
     static CompletableFuture<Boolean> check(@NotNull UUID uuid, @NotNull String permission, boolean defaultValue) {
-        return getPermissionValue(uuid, permission).thenApplyAsync(state -> state.orElse(defaultValue));
+        return Util.thenApply(getPermissionValue(uuid, permission), state -> state.orElse(defaultValue), null);
+    }
+
+    /**
+     * Performs a permission check, falling back to the {@code defaultValue} if the resultant
+     * state is {@link TriState#DEFAULT}.
+     *
+     * <p>If the result is not immediately available, the returned future is completed
+     * using the given {@code executor}.</p>
+     *
+     * @param uuid the uuid of the player to perform the check for
+     * @param permission the permission to check
+     * @param defaultValue the default value to use if nothing has been set
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> check(@NotNull UUID uuid, @NotNull String permission, boolean defaultValue, @NotNull Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        return Util.thenApply(getPermissionValue(uuid, permission), state -> state.orElse(defaultValue), executor);
     }
 
     /**
@@ -275,7 +721,23 @@ public interface Permissions {
      * @return the result of the permission check
      */
     static CompletableFuture<Boolean> check(@NotNull UUID uuid, @NotNull String permission) {
-        return getPermissionValue(uuid, permission).thenApplyAsync(state -> state.orElse(false));
+        return check(uuid, permission, false);
+    }
+
+    /**
+     * Performs a permission check, falling back to {@code false} if the resultant state
+     * is {@link TriState#DEFAULT}.
+     *
+     * <p>If the result is not immediately available, the returned future is completed
+     * using the given {@code executor}.</p>
+     *
+     * @param uuid the uuid of the player to perform the check for
+     * @param permission the permission to check
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> check(@NotNull UUID uuid, @NotNull String permission, @NotNull Executor executor) {
+        return check(uuid, permission, false, executor);
     }
 
     /**
@@ -292,6 +754,24 @@ public interface Permissions {
         return check(profile.id(), permission, defaultValue);
     }
 
+    /**
+     * Performs a permission check, falling back to the {@code defaultValue} if the resultant
+     * state is {@link TriState#DEFAULT}.
+     *
+     * <p>If the result is not immediately available, the returned future is completed
+     * using the given {@code executor}.</p>
+     *
+     * @param profile the player profile to perform the check for
+     * @param permission the permission to check
+     * @param defaultValue the default value to use if nothing has been set
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> check(@NotNull GameProfile profile, @NotNull String permission, boolean defaultValue, @NotNull Executor executor) {
+        Objects.requireNonNull(profile, "profile");
+        return check(profile.id(), permission, defaultValue, executor);
+    }
+
     /**
      * Performs a permission check, falling back to {@code false} if the resultant state
      * is {@link TriState#DEFAULT}.
@@ -305,6 +785,23 @@ public interface Permissions {
         return check(profile.id(), permission);
     }
 
+    /**
+     * Performs a permission check, falling back to {@code false} if the resultant state
+     * is {@link TriState#DEFAULT}.
+     *
+     * <p>If the result is not immediately available, the returned future is completed
+     * using the given {@code executor}.</p>
+     *
+     * @param profile the player profile to perform the check for
+     * @param permission the permission to check
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> check(@NotNull GameProfile profile, @NotNull String permission, @NotNull Executor executor) {
+        Objects.requireNonNull(profile, "profile");
+        return check(profile.id(), permission, executor);
+    }
+
     /**
      * Performs a permission check, falling back to requiring the {@code defaultRequiredLevel}
      * if the resultant state is {@link TriState#DEFAULT}.
@@ -333,10 +830,27 @@ public interface Permissions {
      */
     static CompletableFuture<Boolean> check(@NotNull GameProfile profile, @NotNull String permission, @NotNull PermissionLevel defaultRequiredLevel, @NotNull MinecraftServer server) {
         Objects.requireNonNull(profile, "profile");
-        Objects.requireNonNull(defaultRequiredLevel, "defaultRequiredLevel");
-        Objects.requireNonNull(server, "server");
-        BooleanSupplier permissionLevelCheck = () -> server.getProfilePermissions(new NameAndId(profile)).level().isEqualOrHigherThan(defaultRequiredLevel);
-        return getPermissionValue(profile.id(), permission).thenApplyAsync(state -> state.orElseGet(permissionLevelCheck));
+        return check(new NameAndId(profile), permission, defaultRequiredLevel, server);
+    }
+
+    /**
+     * Performs a permission check, falling back to requiring the {@code defaultRequiredLevel}
+     * if the resultant state is {@link TriState#DEFAULT}.
+     *
+     * <p>If the result is not immediately available, the returned future is completed
+     * using the given {@code executor}. The fallback permission level is always checked
+     * using the {@code executor}; pass the {@code server} to perform it on the server thread.</p>
+     *
+     * @param profile the player profile to perform the check for
+     * @param permission the permission to check
+     * @param defaultRequiredLevel the required permission level to check for as a fallback
+     * @param server instance to check permission level
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> check(@NotNull GameProfile profile, @NotNull String permission, @NotNull PermissionLevel defaultRequiredLevel, @NotNull MinecraftServer server, @NotNull Executor executor) {
+        Objects.requireNonNull(profile, "profile");
+        return check(new NameAndId(profile), permission, defaultRequiredLevel, server, executor);
     }
     
     /**
@@ -353,6 +867,24 @@ public interface Permissions {
         return check(entry.id(), permission, defaultValue);
     }
 
+    /**
+     * Performs a permission check, falling back to the {@code defaultValue} if the resultant
+     * state is {@link TriState#DEFAULT}.
+     *
+     * <p>If the result is not immediately available, the returned future is completed
+     * using the given {@code executor}.</p>
+     *
+     * @param entry the player config entry to perform the check for
+     * @param permission the permission to check
+     * @param defaultValue the default value to use if nothing has been set
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> check(@NotNull NameAndId entry, @NotNull String permission, boolean defaultValue, @NotNull Executor executor) {
+        Objects.requireNonNull(entry, "entry");
+        return check(entry.id(), permission, defaultValue, executor);
+    }
+
     /**
      * Performs a permission check, falling back to {@code false} if the resultant state
      * is {@link TriState#DEFAULT}.
@@ -366,6 +898,23 @@ public interface Permissions {
         return check(entry.id(), permission);
     }
 
+    /**
+     * Performs a permission check, falling back to {@code false} if the resultant state
+     * is {@link TriState#DEFAULT}.
+     *
+     * <p>If the result is not immediately available, the returned future is completed
+     * using the given {@code executor}.</p>
+     *
+     * @param entry the player config entry to perform the check for
+     * @param permission the permission to check
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> check(@NotNull NameAndId entry, @NotNull String permission, @NotNull Executor executor) {
+        Objects.requireNonNull(entry, "entry");
+        return check(entry.id(), permission, executor);
+    }
+
     /**
      * Performs a permission check, falling back to requiring the {@code defaultRequiredLevel}
      * if the resultant state is {@link TriState#DEFAULT}.
@@ -397,7 +946,129 @@ public interface Permissions {
         Objects.requireNonNull(defaultRequiredLevel, "defaultRequiredLevel");
         Objects.requireNonNull(server, "server");
         BooleanSupplier permissionLevelCheck = () -> server.getProfilePermissions(entry).level().isEqualOrHigherThan(defaultRequiredLevel);
-        return getPermissionValue(entry.id(), permission).thenApplyAsync(state -> state.orElseGet(permissionLevelCheck));
+        return Util.thenApplyFallback(getPermissionValue(entry.id(), permission), permissionLevelCheck, null);
     }
-    
+
+    /**
+     * Performs a permission check, falling back to requiring the {@code defaultRequiredLevel}
+     * if the resultant state is {@link TriState#DEFAULT}.
+     *
+     * <p>If the result is not immediately available, the returned future is completed
+     * using the given {@code executor}. The fallback permission level is always checked
+     * using the {@code executor}; pass the {@code server} to perform it on the server thread.</p>
+     *
+     * @param entry the player config entry to perform the check for
+     * @param permission the permission to check
+     * @param defaultRequiredLevel the required permission level to check for as a fallback
+     * @param server instance to check permission level
+     * @param executor the executor to complete the result with
+     * @return the result of the permission check
+     */
+    static CompletableFuture<Boolean> check(@NotNull NameAndId entry, @NotNull String permission, @NotNull PermissionLevel defaultRequiredLevel, @NotNull MinecraftServer server, @NotNull Executor executor) {
+        Objects.requireNonNull(entry, "entry");
+        Objects.requireNonNull(defaultRequiredLevel, "defaultRequiredLevel");
+        Objects.requireNonNull(server, "server");
+        Objects.requireNonNull(executor, "executor");
+        BooleanSupplier permissionLevelCheck = () -> server.getProfilePermissions(entry).level().isEqualOrHigherThan(defaultRequiredLevel);
+        return Util.thenApplyFallback(getPermissionValue(entry.id(), permission), permissionLevelCheck, executor);
+    }
+
+    /**
+     * Watches the {@link TriState state} of a {@code permission} for the given player.
+     *
+     * <p>The state is re-evaluated on the server thread whenever the
+     * {@link PermissionInvalidationEvent} is fired for the player, and the {@code listener}
+     * is called with the new state only if it has changed.</p>
+     *
+     * <p>This method must be called on the server thread. The watch ends when it is
+     * unsubscribed, or when the player disconnects: the listener is not called after the
+     * player has left, even if they join again. Watch the player again after they rejoin,
+     * or use {@link #watch(UUID, String, Consumer)} to follow a player across sessions.</p>
+     *
+     * @param player the player
+     * @param permission the permission
+     * @param listener the listener to call when the state changes
+     * @return a subscription, used to unsubscribe the listener
+     */
+    static @NotNull Subscription watch(@NotNull ServerPlayer player, @NotNull String permission, @NotNull Consumer<? super TriState> listener) {
+        Objects.requireNonNull(permission, "permission");
+        return watch(player, PermissionNode.of(permission), listener);
+    }
+
+    /**
+     * Watches the {@link TriState state} of a {@code permission} for the given player.
+     *
+     * <p>The state is re-evaluated on the server thread whenever the
+     * {@link PermissionInvalidationEvent} is fired for the player, and the {@code listener}
+     * is called with the new state only if it has changed.</p>
+     *
+     * <p>This method must be called on the server thread. The watch ends when it is
+     * unsubscribed, or when the player disconnects: the listener is not called after the
+     * player has left, even if they join again. Watch the player again after they rejoin,
+     * or use {@link #watch(UUID, String, Consumer)} to follow a player across sessions.</p>
+     *
+     * @param player the player
+     * @param permission the permission
+     * @param listener the listener to call when the state changes
+     * @return a subscription, used to unsubscribe the listener
+     */
+    static @NotNull Subscription watch(@NotNull ServerPlayer player, @NotNull PermissionNode permission, @NotNull Consumer<? super TriState> listener) {
+        Objects.requireNonNull(player, "player");
+        Objects.requireNonNull(permission, "permission");
+        Objects.requireNonNull(listener, "listener");
+        return PermissionWatchers.watch(player, permission, listener);
+    }
+
+    /**
+     * Watches the {@link TriState state} of a {@code permission} for the given (potentially)
+     * offline player.
+     *
+     * <p>The state is re-evaluated whenever the {@link PermissionInvalidationEvent} is fired
+     * for the player, and the {@code listener} is called with the new state only if it has
+     * changed. The listener is called on the thread which completes the offline check.</p>
+     *
+     * @param uuid the uuid of the player
+     * @param permission the permission
+     * @param listener the listener to call when the state changes
+     * @return a subscription, used to unsubscribe the listener
+     */
+    static @NotNull Subscription watch(@NotNull UUID uuid, @NotNull String permission, @NotNull Consumer<? super TriState> listener) {
+        Objects.requireNonNull(uuid, "uuid");
+        Objects.requireNonNull(permission, "permission");
+        Objects.requireNonNull(listener, "listener");
+        return PermissionWatchers.watch(uuid, PermissionNode.of(permission), listener);
+    }
+
+    /**
+     * Requests that the command tree is resent to the given player, for example after their
+     * permissions have changed.
+     *
+     * <p>Requests are batched: the command tree is resent once, after the server finishes the
+     * current tick, no matter how many times this method is called for the player before then.</p>
+     *
+     * @param player the player
+     */
+    static void refreshCommands(@NotNull ServerPlayer player) {
+        Objects.requireNonNull(player, "player");
+        CommandTreeRefresher.refresh(player);
+    }
+
+    /**
+     * Requests that the command tree is resent to the given player, if any of the given
+     * {@code permissions} are checked by a {@link #require(String) command requirement}.
+     *
+     * <p>Requests are batched: the command tree is resent once, after the server finishes the
+     * current tick, no matter how many times this method is called for the player before then.</p>
+     *
+     * @param player the player
+     * @param permissions the permissions which have changed
+     */
+    static void refreshCommands(@NotNull ServerPlayer player, @NotNull Collection<PermissionNode> permissions) {
+        Objects.requireNonNull(player, "player");
+        Objects.requireNonNull(permissions, "permissions");
+        if (CommandTreeRefresher.affectsCommands(permissions)) {
+            CommandTreeRefresher.refresh(player);
+        }
+    }
+
 }
@@ -0,0 +1,182 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An opt-in cache of option values for online players.
+ *
+ * <p>When enabled, each {@link ServerPlayer} gets a view of their options, which is filled in
+ * lazily as keys are read using {@link Options#get(net.minecraft.world.entity.Entity, String)}.
+ * Repeated reads of the same key are answered from the view, without creating a command source
+ * or dispatching any events.</p>
+ *
+ * <p>A player's view is discarded when a provider fires the {@link PermissionInvalidationEvent}
+ * for them, and is no longer used once they disconnect (or the player entity is replaced). This
+ * library doesn't listen for disconnects, so views are only weakly bound to their player, and
+ * the views of disconnected players are removed the next time a view is created or the cache
+ * is invalidated. The cache should only be enabled if all installed providers fire the event
+ * when a player's options change.</p>
+ */
+public final class PlayerOptionCache {
+    private static volatile boolean enabled = false;
+    private static final Map<UUID, View> VIEWS = new ConcurrentHashMap<>();
+    // the server of the most recently cached player, to look up players by their unique id
+    private static volatile WeakReference<MinecraftServer> server = new WeakReference<>(null);
+
+    private PlayerOptionCache() {
+    }
+
+    /**
+     * Enables the cache.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Disables the cache and discards all cached values.
+     */
+    public static void disable() {
+        enabled = false;
+        VIEWS.clear();
+    }
+
+    /**
+     * Gets if the cache is enabled.
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    static Optional<String> get(ServerPlayer player, String key) {
+        View view = VIEWS.get(player.getUUID());
+        if (view == null || view.player.get() != player || player.hasDisconnected()) {
+            view = createView(player);
+        }
+
+        Optional<String> value = view.values.get(key);
+        if (value == null) {
+            value = Util.requestOption(player, key);
+            view.values.put(key, value);
+        }
+        return value;
+    }
+
+    private static View createView(ServerPlayer player) {
+        // drop the views of players who have since disconnected
+        VIEWS.values().removeIf(View::isStale);
+
+        View view = new View(player);
+        if (enabled && !player.hasDisconnected()) {
+            VIEWS.put(player.getUUID(), view);
+            ServerLevel level = player.level();
+            if (level != null && server.get() != level.getServer()) {
+                server = new WeakReference<>(level.getServer());
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Gets the view for the given player, creating one if necessary. Returns null if the cache
+     * is disabled or the player has disconnected.
+     */
+    static @Nullable View getOrCreateView(ServerPlayer player) {
+        if (!enabled || player.hasDisconnected()) {
+            return null;
+        }
+        View view = VIEWS.get(player.getUUID());
+        if (view == null || view.player.get() != player) {
+            view = createView(player);
+        }
+        return view;
+    }
+
+    /**
+     * Gets the view for the player with the given unique id, creating one if they are online.
+     * Returns null if the cache is disabled or the player isn't online.
+     */
+    static @Nullable View getOrCreateView(UUID uuid) {
+        if (!enabled) {
+            return null;
+        }
+        View view = VIEWS.get(uuid);
+        if (view != null && !view.isStale()) {
+            return view;
+        }
+        MinecraftServer server = PlayerOptionCache.server.get();
+        ServerPlayer player = server == null ? null : server.getPlayerList().getPlayer(uuid);
+        return player == null ? null : getOrCreateView(player);
+    }
+
+    static void warm(UUID uuid, View view, Map<String, Optional<String>> values) {
+        // only if the view hasn't been invalidated in the meantime
+        if (VIEWS.get(uuid) == view) {
+            values.forEach(view.values::putIfAbsent);
+        }
+    }
+
+    static void invalidateInternal(@Nullable UUID uuid) {
+        if (VIEWS.isEmpty()) {
+            return;
+        }
+        if (uuid == null) {
+            VIEWS.clear();
+        } else {
+            VIEWS.remove(uuid);
+            VIEWS.values().removeIf(View::isStale);
+        }
+    }
+
+    static final class View {
+        private final WeakReference<ServerPlayer> player;
+        private final Map<String, Optional<String>> values = new ConcurrentHashMap<>();
+
+        private View(ServerPlayer player) {
+            this.player = new WeakReference<>(player);
+        }
+
+        private boolean isStale() {
+            ServerPlayer player = this.player.get();
+            return player == null || player.hasDisconnected();
+        }
+    }
+
+}
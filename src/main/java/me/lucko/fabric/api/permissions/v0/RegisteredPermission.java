@@ -0,0 +1,170 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.server.permissions.Permission;
+import net.minecraft.server.permissions.PermissionLevel;
+import net.minecraft.world.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A permission declared up-front using {@link Permissions#register(String, PermissionLevel, String)},
+ * along with its default required level and a description.
+ *
+ * <p>Checks made through the handle use the declared default, with the vanilla fallback
+ * resolved once at registration. Checks for a registered node are always dispatched to
+ * providers, even if no {@link KnownPermissionNodes} callback declares it.</p>
+ */
+public final class RegisteredPermission {
+    private static final Map<PermissionNode, RegisteredPermission> REGISTERED = new ConcurrentHashMap<>();
+
+    static RegisteredPermission register(PermissionNode node, PermissionLevel defaultRequiredLevel, String description) {
+        RegisteredPermission permission = new RegisteredPermission(node, defaultRequiredLevel, description);
+        RegisteredPermission existing = REGISTERED.putIfAbsent(node, permission);
+        if (existing != null) {
+            if (existing.defaultRequiredLevel != defaultRequiredLevel) {
+                throw new IllegalStateException("Permission '" + node + "' is already registered with default level " + existing.defaultRequiredLevel);
+            }
+            return existing;
+        }
+        PermissionCheckIndex.registered(node);
+        PermissionRegisteredEvent.EVENT.invoker().onPermissionRegistered(permission);
+        // providers may have learned about the node from the event
+        PermissionCheckIndex.invalidate();
+        return permission;
+    }
+
+    static Collection<RegisteredPermission> getAll() {
+        return Collections.unmodifiableCollection(REGISTERED.values());
+    }
+
+    private final PermissionNode node;
+    private final PermissionLevel defaultRequiredLevel;
+    private final Permission defaultPermission;
+    private final String description;
+    // created on first use, so only permissions used as command requirements affect command trees
+    private volatile PermissionPredicate predicate = null;
+
+    private RegisteredPermission(PermissionNode node, PermissionLevel defaultRequiredLevel, String description) {
+        this.node = node;
+        this.defaultRequiredLevel = defaultRequiredLevel;
+        this.defaultPermission = Util.permissionForLevel(defaultRequiredLevel);
+        this.description = description;
+    }
+
+    /**
+     * Gets the permission node.
+     *
+     * @return the permission node
+     */
+    public @NotNull PermissionNode getNode() {
+        return this.node;
+    }
+
+    /**
+     * Gets the permission level required if the permission is not set.
+     *
+     * @return the default required permission level
+     */
+    public @NotNull PermissionLevel getDefaultRequiredLevel() {
+        return this.defaultRequiredLevel;
+    }
+
+    /**
+     * Gets the description of the permission.
+     *
+     * @return the description
+     */
+    public @NotNull String getDescription() {
+        return this.description;
+    }
+
+    /**
+     * Performs a permission check, falling back to requiring the default level if the
+     * resultant state is {@link TriState#DEFAULT}.
+     *
+     * @param source the source to perform the check for
+     * @return the result of the permission check
+     */
+    public boolean check(@NotNull SharedSuggestionProvider source) {
+        TriState state = Permissions.getPermissionValue(source, this.node);
+        if (state != TriState.DEFAULT) {
+            return state.get();
+        }
+        return source.permissions().hasPermission(this.defaultPermission);
+    }
+
+    /**
+     * Performs a permission check, falling back to requiring the default level if the
+     * resultant state is {@link TriState#DEFAULT}.
+     *
+     * @param entity the entity to perform the check for
+     * @return the result of the permission check
+     */
+    public boolean check(@NotNull Entity entity) {
+        Objects.requireNonNull(entity, "entity");
+        TriState state = Util.getPermissionValue(entity, this.node);
+        if (state != TriState.DEFAULT) {
+            return state.get();
+        }
+        return Util.entityPermissions(entity).hasPermission(this.defaultPermission);
+    }
+
+    /**
+     * Gets a predicate which performs the permission check, for use as a command requirement.
+     *
+     * <p>The same predicate instance is returned each time.</p>
+     *
+     * @return the predicate
+     */
+    public @NotNull PermissionPredicate require() {
+        PermissionPredicate predicate = this.predicate;
+        if (predicate == null) {
+            synchronized (this) {
+                predicate = this.predicate;
+                if (predicate == null) {
+                    predicate = new PermissionPredicate(this.node, this.defaultRequiredLevel);
+                    this.predicate = predicate;
+                }
+            }
+        }
+        return predicate;
+    }
+
+    @Override
+    public String toString() {
+        return "RegisteredPermission(" + this.node + ")";
+    }
+}
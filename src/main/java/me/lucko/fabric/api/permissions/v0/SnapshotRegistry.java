@@ -0,0 +1,86 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+final class SnapshotRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger("fabric-permissions-api");
+    private static final Map<UUID, PermissionSnapshot> SNAPSHOTS = new ConcurrentHashMap<>();
+    private static final Map<UUID, List<Consumer<? super PermissionSnapshot>>> LISTENERS = new ConcurrentHashMap<>();
+
+    private SnapshotRegistry() {
+    }
+
+    static PermissionSnapshot get(UUID uuid) {
+        return SNAPSHOTS.get(uuid);
+    }
+
+    static void publish(PermissionSnapshot snapshot) {
+        UUID uuid = snapshot.getUniqueId();
+        SNAPSHOTS.put(uuid, snapshot);
+
+        List<Consumer<? super PermissionSnapshot>> listeners = LISTENERS.get(uuid);
+        if (listeners != null) {
+            for (Consumer<? super PermissionSnapshot> listener : listeners) {
+                // listeners are called inline by the provider, so one failing listener
+                // mustn't propagate into the provider or skip the others
+                try {
+                    listener.accept(snapshot);
+                } catch (Throwable e) {
+                    LOGGER.error("Exception thrown by snapshot listener for " + uuid, e);
+                }
+            }
+        }
+    }
+
+    static void discard(UUID uuid) {
+        SNAPSHOTS.remove(uuid);
+    }
+
+    static Subscription subscribe(UUID uuid, Consumer<? super PermissionSnapshot> listener) {
+        LISTENERS.compute(uuid, (u, listeners) -> {
+            if (listeners == null) {
+                listeners = new CopyOnWriteArrayList<>();
+            }
+            listeners.add(listener);
+            return listeners;
+        });
+        return () -> LISTENERS.computeIfPresent(uuid, (u, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+}
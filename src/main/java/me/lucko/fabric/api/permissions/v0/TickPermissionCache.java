@@ -0,0 +1,132 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.entity.Entity;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An opt-in, server tick scoped memo of permission check results.
+ *
+ * <p>When enabled, the results of {@link Permissions#getPermissionValue(SharedSuggestionProvider, PermissionNode)}
+ * for sources backed by an entity, and of {@link Permissions#getPermissionValue(Entity, PermissionNode)},
+ * are remembered for the remainder of the current server tick. Repeated checks of the same node for
+ * the same entity within a tick are then answered without dispatching the check events.</p>
+ *
+ * <p>Only checks made on the server thread are memoized. The memo is discarded as soon as the
+ * server moves on to the next tick, and when the {@link PermissionInvalidationEvent} is fired.</p>
+ */
+public final class TickPermissionCache {
+    private static volatile boolean enabled = false;
+    private static volatile boolean invalidated = false;
+    private static volatile int generation = 0;
+
+    // only accessed from the server thread
+    private static final Map<UUID, Map<PermissionNode, TriState>> RESULTS = new HashMap<>();
+    private static WeakReference<MinecraftServer> server = new WeakReference<>(null);
+    private static int tick = -1;
+
+    private TickPermissionCache() {
+    }
+
+    /**
+     * Enables tick scoped memoization.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Disables tick scoped memoization.
+     */
+    public static void disable() {
+        enabled = false;
+        invalidateInternal();
+    }
+
+    /**
+     * Gets if tick scoped memoization is enabled.
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    static synchronized void invalidateInternal() {
+        generation++;
+        invalidated = true;
+    }
+
+    /**
+     * Gets the current generation, to be read before a result is computed and passed to
+     * {@link #put(Map, PermissionNode, TriState, int)}.
+     */
+    static int generation() {
+        return generation;
+    }
+
+    /**
+     * Memoizes a result, unless the memo has been invalidated since the given {@code generation}
+     * was read (in which case the result may be stale).
+     */
+    static void put(Map<PermissionNode, TriState> results, PermissionNode node, TriState state, int generation) {
+        if (TickPermissionCache.generation == generation) {
+            results.put(node, state);
+        }
+    }
+
+    /**
+     * Gets the memoized results for the given subject in the current tick, or null if
+     * memoization is disabled or the caller is not on the server thread.
+     */
+    static @Nullable Map<PermissionNode, TriState> get(@Nullable MinecraftServer currentServer, UUID uuid) {
+        if (!enabled || currentServer == null || !currentServer.isSameThread()) {
+            return null;
+        }
+
+        int currentTick = currentServer.getTickCount();
+        if (invalidated || currentTick != tick || server.get() != currentServer) {
+            invalidated = false;
+            RESULTS.clear();
+            if (server.get() != currentServer) {
+                server = new WeakReference<>(currentServer);
+            }
+            tick = currentTick;
+        }
+        return RESULTS.computeIfAbsent(uuid, u -> new IdentityHashMap<>());
+    }
+
+}
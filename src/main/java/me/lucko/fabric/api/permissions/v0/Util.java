@@ -25,15 +25,54 @@
 
 package me.lucko.fabric.api.permissions.v0;
 
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.permissions.Permission;
 import net.minecraft.server.permissions.PermissionLevel;
+import net.minecraft.server.permissions.PermissionSet;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 class Util {
+    private static final double MAX_EXACT_DOUBLE = 0x1p53;
+
+    // set by the NumericOptionRequestEvent invoker
+    static volatile boolean numericOptionListeners = false;
+
+    // set by the PermissionPrefixQueryEvent and OfflinePermissionPrefixQueryEvent invokers
+    static volatile boolean prefixQueryListeners = false;
+    static volatile boolean offlinePrefixQueryListeners = false;
+
+    private static final Permission[] LEVEL_PERMISSIONS = Arrays.stream(PermissionLevel.values())
+            .map(Permission.HasCommandLevel::new)
+            .toArray(Permission[]::new);
 
     static CommandSourceStack commandSourceFromEntity(Entity entity) {
         if (entity instanceof ServerPlayer) {
@@ -47,6 +86,471 @@ class Util {
         }
     }
 
+    /**
+     * Gets the permissions (i.e. the vanilla permission level) of an entity, without creating a
+     * command source for players.
+     */
+    static PermissionSet entityPermissions(Entity entity) {
+        if (entity instanceof ServerPlayer) {
+            return ((ServerPlayer) entity).permissions();
+        }
+        return commandSourceFromEntity(entity).permissions();
+    }
+
+    static TriState getPermissionValue(SharedSuggestionProvider source, PermissionNode node) {
+        if (PermissionCheckIndex.isUnknown(node)) {
+            return TriState.DEFAULT;
+        }
+        if (!TickPermissionCache.isEnabled() && !PermissionCache.isEnabled()) {
+            return dispatchPermissionCheck(source, node);
+        }
+        if (source instanceof CommandSourceStack) {
+            Entity entity = ((CommandSourceStack) source).getEntity();
+            if (entity != null) {
+                return getCachedPermissionValue(entity.getUUID(), ((CommandSourceStack) source).getServer(), node, source, null);
+            }
+        }
+        return dispatchPermissionCheck(source, node);
+    }
+
+    static CompletableFuture<TriState> getPermissionValueAsync(SharedSuggestionProvider source, PermissionNode node) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(node, "node");
+        TriState state = getPermissionValue(source, node);
+        if (state != TriState.DEFAULT) {
+            return CompletableFuture.completedFuture(state);
+        }
+        return AsyncPermissionCheckEvent.EVENT.invoker().onPermissionCheck(source, node);
+    }
+
+    static TriState getPermissionValue(Entity entity, PermissionNode node) {
+        if (PermissionCheckIndex.isUnknown(node)) {
+            return TriState.DEFAULT;
+        }
+        if (!TickPermissionCache.isEnabled() && !PermissionCache.isEnabled()) {
+            return dispatchPermissionCheck(entity, node);
+        }
+        return getCachedPermissionValue(entity.getUUID(), entity.level().getServer(), node, null, entity);
+    }
+
+    private static TriState getCachedPermissionValue(UUID uuid, @Nullable MinecraftServer server, PermissionNode node, @Nullable SharedSuggestionProvider source, @Nullable Entity entity) {
+        Map<PermissionNode, TriState> tickResults = TickPermissionCache.get(server, uuid);
+        TriState state;
+        if (tickResults != null && (state = tickResults.get(node)) != null) {
+            return state;
+        }
+
+        // read before dispatching, so results computed across an invalidation aren't stored
+        int tickGeneration = TickPermissionCache.generation();
+        PermissionCache cache = PermissionCache.get();
+        state = cache == null ? null : cache.get(uuid, node);
+        if (state == null) {
+            long generation = cache == null ? 0 : cache.generation();
+            state = source != null ? dispatchPermissionCheck(source, node) : dispatchPermissionCheck(entity, node);
+            if (cache != null) {
+                cache.put(uuid, node, state, generation);
+            }
+        }
+
+        if (tickResults != null) {
+            TickPermissionCache.put(tickResults, node, state, tickGeneration);
+        }
+        return state;
+    }
+
+    static TriState[] getPermissionValues(SharedSuggestionProvider source, PermissionNode[] nodes) {
+        TriState[] results = new TriState[nodes.length];
+        Arrays.fill(results, TriState.DEFAULT);
+
+        // the same cache layers as single checks, so the results are consistent with check()
+        UUID uuid = null;
+        MinecraftServer server = null;
+        if ((TickPermissionCache.isEnabled() || PermissionCache.isEnabled()) && source instanceof CommandSourceStack) {
+            Entity entity = ((CommandSourceStack) source).getEntity();
+            if (entity != null) {
+                uuid = entity.getUUID();
+                server = ((CommandSourceStack) source).getServer();
+            }
+        }
+        Map<PermissionNode, TriState> tickResults = uuid == null ? null : TickPermissionCache.get(server, uuid);
+        PermissionCache cache = uuid == null ? null : PermissionCache.get();
+        int tickGeneration = TickPermissionCache.generation();
+        long generation = cache == null ? 0 : cache.generation();
+
+        BitSet answered = new BitSet(nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            PermissionNode node = nodes[i];
+            if (PermissionCheckIndex.isUnknown(node)) {
+                answered.set(i);
+                continue;
+            }
+            TriState state = tickResults == null ? null : tickResults.get(node);
+            if (state == null && cache != null && (state = cache.get(uuid, node)) != null && tickResults != null) {
+                TickPermissionCache.put(tickResults, node, state, tickGeneration);
+            }
+            if (state != null) {
+                results[i] = state;
+                answered.set(i);
+            }
+        }
+        if (answered.cardinality() == nodes.length) {
+            return results;
+        }
+
+        BitSet resolved = (BitSet) answered.clone();
+        BatchPermissionCheckEvent.EVENT.invoker().onPermissionCheck(source, Arrays.asList(nodes), results, answered);
+
+        for (int i = resolved.nextClearBit(0); i < nodes.length; i = resolved.nextClearBit(i + 1)) {
+            PermissionNode node = nodes[i];
+            if (!answered.get(i) && results[i] == TriState.DEFAULT) {
+                // not answered by the batch, fall back to a single check
+                results[i] = getPermissionValue(source, node);
+                continue;
+            }
+            if (cache != null) {
+                cache.put(uuid, node, results[i], generation);
+            }
+            if (tickResults != null) {
+                TickPermissionCache.put(tickResults, node, results[i], tickGeneration);
+            }
+        }
+        return results;
+    }
+
+    static TriState dispatchPermissionCheck(Entity entity, PermissionNode node) {
+        TriState state = EntityPermissionCheckEvent.EVENT.invoker().onPermissionCheck(entity, node);
+        if (state != TriState.DEFAULT) {
+            return state;
+        }
+        return dispatchPermissionCheck(commandSourceFromEntity(entity), node);
+    }
+
+    static TriState dispatchPermissionCheck(SharedSuggestionProvider source, PermissionNode node) {
+        TriState state = PermissionNodeCheckEvent.EVENT.invoker().onPermissionCheck(source, node);
+        if (state != TriState.DEFAULT) {
+            return state;
+        }
+        return PermissionCheckIndex.dispatch(source, node);
+    }
+
+    static Optional<String> requestOption(Entity entity, String key) {
+        Optional<String> value = EntityOptionRequestEvent.EVENT.invoker().onOptionRequest(entity, key);
+        if (value.isPresent()) {
+            return value;
+        }
+        return Options.get(commandSourceFromEntity(entity), key);
+    }
+
+    static CompletableFuture<Map<String, String>> prefetchOptions(UUID uuid, Collection<String> keys, PlayerOptionCache.@Nullable View view) {
+        List<String> requested = List.copyOf(keys);
+
+        CompletableFuture<Map<String, String>> future = OfflineBatchOptionRequestEvent.EVENT.invoker().onOptionRequest(uuid, requested).thenCompose(answered -> {
+            Map<String, String> results = new HashMap<>();
+            List<CompletableFuture<?>> pending = new ArrayList<>();
+            for (String key : requested) {
+                Optional<String> value = answered.get(key);
+                if (value != null) {
+                    value.ifPresent(v -> {
+                        synchronized (results) {
+                            results.put(key, v);
+                        }
+                    });
+                    continue;
+                }
+                pending.add(Options.get(uuid, key).thenAccept(opt -> opt.ifPresent(v -> {
+                    synchronized (results) {
+                        results.put(key, v);
+                    }
+                })));
+            }
+
+            if (pending.isEmpty()) {
+                return CompletableFuture.completedFuture(results);
+            }
+            return CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).thenApply(v -> results);
+        });
+
+        if (view != null) {
+            future.thenAccept(results -> {
+                Map<String, Optional<String>> values = new HashMap<>();
+                for (String key : requested) {
+                    values.put(key, Optional.ofNullable(results.get(key)));
+                }
+                PlayerOptionCache.warm(uuid, view, values);
+            });
+        }
+        return future;
+    }
+
+    static <T> Optional<T> transformOption(Optional<String> value, Function<String, ? extends T> valueTransformer) {
+        return value.flatMap(v -> {
+            try {
+                return Optional.ofNullable(valueTransformer.apply(v));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * Applies the {@code function} to the result of the {@code future}.
+     *
+     * <p>If the future has already completed normally, the function is applied immediately
+     * and an already completed future is returned. Otherwise, the function is applied
+     * asynchronously using the {@code executor}, or the common pool if none is given.</p>
+     */
+    static <T, R> CompletableFuture<R> thenApply(CompletableFuture<T> future, Function<? super T, ? extends R> function, @Nullable Executor executor) {
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            try {
+                return CompletableFuture.completedFuture(function.apply(future.join()));
+            } catch (Throwable e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return executor == null ? future.thenApplyAsync(function) : future.thenApplyAsync(function, executor);
+    }
+
+    /**
+     * Resolves the result of an offline permission check, using the {@code fallback} if the
+     * state is {@link TriState#DEFAULT}.
+     *
+     * <p>Only results which don't need the fallback are returned immediately. The fallback is
+     * always performed asynchronously using the {@code executor}, or the common pool if none is
+     * given, as it may need to run on a specific thread.</p>
+     */
+    static CompletableFuture<Boolean> thenApplyFallback(CompletableFuture<TriState> future, BooleanSupplier fallback, @Nullable Executor executor) {
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            TriState state = future.join();
+            if (state != TriState.DEFAULT) {
+                return CompletableFuture.completedFuture(state.get());
+            }
+        }
+        Function<TriState, Boolean> function = state -> state.orElseGet(fallback);
+        return executor == null ? future.thenApplyAsync(function) : future.thenApplyAsync(function, executor);
+    }
+
+    /**
+     * Calls each of the {@code callbacks} in turn, until one returns a future which completes
+     * with a value matching {@code isResult}.
+     *
+     * <p>Callbacks are only called once the previous callback's future has completed. While
+     * those futures complete synchronously, no additional stages are allocated. An exception
+     * thrown by a callback completes the returned future exceptionally, as it would if the
+     * callback had been called from a dependent stage.</p>
+     */
+    static <C, T> CompletableFuture<T> firstResult(C[] callbacks, int index, Function<C, CompletableFuture<T>> call, Predicate<T> isResult, T empty) {
+        int last = callbacks.length - 1;
+        for (int i = index; i <= last; i++) {
+            CompletableFuture<T> future;
+            try {
+                future = call.apply(callbacks[i]);
+            } catch (Throwable e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            if (i == last) {
+                return future;
+            }
+            if (!future.isDone()) {
+                int next = i + 1;
+                return future.thenCompose(value -> isResult.test(value) ? future : firstResult(callbacks, next, call, isResult, empty));
+            }
+            if (future.isCompletedExceptionally() || isResult.test(future.join())) {
+                return future;
+            }
+        }
+        return CompletableFuture.completedFuture(empty);
+    }
+
+    /**
+     * Calls each of the {@code callbacks} in turn, merging the answer of each into the
+     * {@code results}, until a callback has nothing left to answer.
+     *
+     * <p>{@code call} should return null if there is nothing left for the callback to answer.
+     * As with {@link #firstResult}, callbacks are only called once the previous callback's future
+     * has completed, and no additional stages are allocated while those futures complete
+     * synchronously.</p>
+     */
+    static <C, A, R> CompletableFuture<R> mergeResults(C[] callbacks, int index, R results, BiFunction<C, R, CompletableFuture<A>> call, BiConsumer<R, A> merge) {
+        for (int i = index; i < callbacks.length; i++) {
+            CompletableFuture<A> future;
+            try {
+                future = call.apply(callbacks[i], results);
+                if (future == null) {
+                    break;
+                }
+                if (!future.isDone() || future.isCompletedExceptionally()) {
+                    int next = i + 1;
+                    return future.thenCompose(answered -> {
+                        merge.accept(results, answered);
+                        return mergeResults(callbacks, next, results, call, merge);
+                    });
+                }
+                merge.accept(results, future.join());
+            } catch (Throwable e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.completedFuture(results);
+    }
+
+    static BitSet toBitSet(TriState[] states) {
+        BitSet bits = new BitSet(states.length);
+        for (int i = 0; i < states.length; i++) {
+            if (states[i].get()) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    static BitSet toBitSet(CompletableFuture<TriState>[] futures) {
+        BitSet bits = new BitSet(futures.length);
+        for (int i = 0; i < futures.length; i++) {
+            if (futures[i].join().get()) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    static double requestNumericOption(SharedSuggestionProvider source, String key) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(key, "key");
+        return NumericOptionRequestEvent.EVENT.invoker().onOptionRequest(source, key);
+    }
+
+    static double requestNumericOption(Entity entity, String key) {
+        Objects.requireNonNull(entity, "entity");
+        Objects.requireNonNull(key, "key");
+        // only create a command source for the entity if someone is listening
+        if (!numericOptionListeners) {
+            return Double.NaN;
+        }
+        return NumericOptionRequestEvent.EVENT.invoker().onOptionRequest(commandSourceFromEntity(entity), key);
+    }
+
+    /**
+     * Gets if the {@code value} is an integer within the given range, which can be represented
+     * exactly as a double (i.e. without loss of precision).
+     */
+    static boolean isExactInteger(double value, long min, long max) {
+        return value == Math.rint(value) && Math.abs(value) <= MAX_EXACT_DOUBLE && value >= min && value <= max;
+    }
+
+    static long parseLong(@Nullable String value, long min, long max, long defaultValue) {
+        if (value == null || value.isEmpty() || value.length() > 20) {
+            return defaultValue;
+        }
+        // validate up-front, so that malformed values don't cost an exception on every read
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && !(i == 0 && (c == '-' || c == '+') && value.length() > 1)) {
+                return defaultValue;
+            }
+        }
+        try {
+            long result = Long.parseLong(value);
+            return result < min || result > max ? defaultValue : result;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    static double parseDouble(@Nullable String value, double defaultValue) {
+        if (value == null || value.isEmpty() || value.length() > 64) {
+            return defaultValue;
+        }
+        // validate up-front, so that malformed values don't cost an exception on every read
+        boolean digits = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c != '.' && c != 'e' && c != 'E' && c != '-' && c != '+') {
+                return defaultValue;
+            }
+        }
+        if (!digits) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    static boolean parseBoolean(@Nullable String value, boolean defaultValue) {
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        } else if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        return defaultValue;
+    }
+
+    static Set<String> getGrantedUnder(SharedSuggestionProvider source, String prefix) {
+        if (prefixQueryListeners) {
+            return grantedPermissions(PermissionPrefixQueryEvent.EVENT.invoker().onPermissionQuery(source, prefix));
+        }
+
+        // no provider can list the permissions it sets, so check the registered permissions instead
+        Set<String> granted = new LinkedHashSet<>();
+        for (PermissionNode node : registeredUnder(prefix)) {
+            if (getPermissionValue(source, node) == TriState.TRUE) {
+                granted.add(node.getPermission());
+            }
+        }
+        return Collections.unmodifiableSet(granted);
+    }
+
+    static CompletableFuture<Set<String>> getGrantedUnder(UUID uuid, String prefix) {
+        if (offlinePrefixQueryListeners) {
+            return OfflinePermissionPrefixQueryEvent.EVENT.invoker().onPermissionQuery(uuid, prefix).thenApply(Util::grantedPermissions);
+        }
+
+        // no provider can list the permissions it sets, so check the registered permissions instead
+        List<PermissionNode> nodes = registeredUnder(prefix);
+        @SuppressWarnings("unchecked")
+        CompletableFuture<TriState>[] futures = new CompletableFuture[nodes.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = Permissions.getPermissionValue(uuid, nodes.get(i).getPermission());
+        }
+        return CompletableFuture.allOf(futures).thenApply(v -> {
+            Set<String> granted = new LinkedHashSet<>();
+            for (int i = 0; i < futures.length; i++) {
+                if (futures[i].join() == TriState.TRUE) {
+                    granted.add(nodes.get(i).getPermission());
+                }
+            }
+            return Collections.unmodifiableSet(granted);
+        });
+    }
+
+    private static List<PermissionNode> registeredUnder(String prefix) {
+        List<PermissionNode> nodes = new ArrayList<>();
+        for (RegisteredPermission permission : RegisteredPermission.getAll()) {
+            if (permission.getNode().getPermission().startsWith(prefix)) {
+                nodes.add(permission.getNode());
+            }
+        }
+        return nodes;
+    }
+
+    static Set<String> grantedPermissions(Map<String, TriState> states) {
+        Set<String> granted = new LinkedHashSet<>();
+        states.forEach((permission, state) -> {
+            if (state == TriState.TRUE) {
+                granted.add(permission);
+            }
+        });
+        return Collections.unmodifiableSet(granted);
+    }
+
+    static Permission permissionForLevel(PermissionLevel level) {
+        return LEVEL_PERMISSIONS[level.ordinal()];
+    }
+
     static PermissionLevel permissionLevelFromInt(int level) {
         return PermissionLevel.byId(Mth.clamp(level, 0, PermissionLevel.OWNERS.id()));
     }
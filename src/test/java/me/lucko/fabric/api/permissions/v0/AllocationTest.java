@@ -0,0 +1,159 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.permissions.PermissionLevel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the common synchronous permission check paths don't allocate.
+ *
+ * <p>A {@link PermissionCheckEvent} listener which always returns {@link TriState#DEFAULT} is
+ * registered, as most providers would, and an {@link EntityPermissionCheckEvent} listener which
+ * answers checks for the {@code test.allocation.entity} nodes. Entity checks which fall through
+ * to the {@link PermissionCheckEvent} are not covered, since vanilla creates a new command source
+ * for the player on each of those checks.</p>
+ */
+class AllocationTest {
+    private static final int ITERATIONS = 200_000;
+    private static final UUID SUBJECT = UUID.fromString("c1d60c50-70b5-4722-8057-87767557e50d");
+
+    private static final PermissionNode NODE = PermissionNode.of("test.allocation.node");
+    private static final PermissionNode ENTITY_NODE = PermissionNode.of("test.allocation.entity.node");
+
+    private static MinecraftServer server;
+    private static ServerPlayer player;
+    private static CommandSourceStack source;
+    private static CommandSourceStack playerSource;
+    private static RegisteredPermission registered;
+    private static RegisteredPermission registeredEntity;
+
+    private static int tick = 0;
+    private static int passed = 0;
+
+    @BeforeAll
+    static void setUp() {
+        server = TestSubjects.server();
+        player = TestSubjects.player(SUBJECT);
+        source = TestSubjects.source(server, null);
+        playerSource = TestSubjects.source(server, player);
+        registered = Permissions.register("test.allocation.registered", PermissionLevel.GAMEMASTERS, "A registered permission");
+        registeredEntity = Permissions.register("test.allocation.entity.registered", PermissionLevel.GAMEMASTERS, "A registered permission");
+
+        PermissionCheckEvent.EVENT.register((source, permission) -> TriState.DEFAULT);
+        EntityPermissionCheckEvent.EVENT.register((entity, node) -> node.getPermission().startsWith("test.allocation.entity.") ? TriState.TRUE : TriState.DEFAULT);
+    }
+
+    @Test
+    void checkNode() {
+        assertDoesNotAllocate(() -> Permissions.check(source, NODE));
+    }
+
+    @Test
+    void checkNodeWithLevelFallback() {
+        assertDoesNotAllocate(() -> Permissions.check(source, NODE, PermissionLevel.GAMEMASTERS));
+    }
+
+    @Test
+    void checkRegisteredPermission() {
+        assertDoesNotAllocate(() -> registered.check(source));
+    }
+
+    @Test
+    void checkEntity() {
+        assertDoesNotAllocate(() -> Permissions.check(player, ENTITY_NODE));
+    }
+
+    @Test
+    void checkEntityWithLevelFallback() {
+        assertDoesNotAllocate(() -> Permissions.check(player, ENTITY_NODE, PermissionLevel.GAMEMASTERS));
+    }
+
+    @Test
+    void checkRegisteredPermissionForEntity() {
+        assertDoesNotAllocate(() -> registeredEntity.check(player));
+    }
+
+    @Test
+    void checkCachedNode() {
+        PermissionCache.enable(1024);
+        try {
+            assertDoesNotAllocate(() -> Permissions.check(playerSource, NODE));
+        } finally {
+            PermissionCache.disable();
+        }
+    }
+
+    @Test
+    void predicateMemoHit() {
+        PermissionPredicate predicate = registered.require();
+        assertDoesNotAllocate(() -> predicate.test(source));
+    }
+
+    @Test
+    void predicateMemoMiss() {
+        PermissionPredicate predicate = registered.require();
+        assertDoesNotAllocate(() -> {
+            // a new tick, so the memoized result can't be used
+            TestSubjects.setTickCount(server, ++tick);
+            return predicate.test(source);
+        });
+    }
+
+    private static void assertDoesNotAllocate(BooleanSupplier check) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // warm up first, so that the measured checks are compiled
+        run(check);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        run(check);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        // leave a little room for the measurement itself, far less than a byte per check
+        assertTrue(allocated < ITERATIONS / 100, "allocated " + allocated + " bytes over " + ITERATIONS + " checks");
+    }
+
+    private static void run(BooleanSupplier check) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (check.getAsBoolean()) {
+                passed++;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CommandTreeRefresherTest {
+    private static final UUID FIRST = UUID.fromString("c1d60c50-70b5-4722-8057-87767557e50d");
+    private static final UUID SECOND = UUID.fromString("0b2a7d4e-6f0d-4a39-9a55-3f6f1b3d8c21");
+
+    // the tasks queued to run at the end of the current tick
+    private final List<Runnable> tick = new ArrayList<>();
+    private final Map<UUID, Integer> sent = new HashMap<>();
+    private final CommandTreeRefresher refresher = new CommandTreeRefresher(this.tick::add, uuid -> this.sent.merge(uuid, 1, Integer::sum));
+
+    private void endTick() {
+        List<Runnable> tasks = new ArrayList<>(this.tick);
+        this.tick.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    void refreshesInSameTickAreBatched() {
+        this.refresher.request(FIRST);
+        this.refresher.request(FIRST);
+        this.refresher.request(SECOND);
+        this.refresher.request(SECOND);
+
+        // nothing is sent inline, and only one task is queued
+        assertEquals(Map.of(), this.sent);
+        assertEquals(1, this.tick.size());
+
+        endTick();
+        assertEquals(Map.of(FIRST, 1, SECOND, 1), this.sent);
+    }
+
+    @Test
+    void refreshesInLaterTicksAreSentAgain() {
+        this.refresher.request(FIRST);
+        endTick();
+        this.refresher.request(FIRST);
+        assertEquals(1, this.tick.size());
+
+        endTick();
+        assertEquals(Map.of(FIRST, 2), this.sent);
+        assertEquals(0, this.tick.size());
+    }
+
+}
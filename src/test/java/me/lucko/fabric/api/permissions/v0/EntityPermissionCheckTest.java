@@ -0,0 +1,107 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.server.level.ServerPlayer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityPermissionCheckTest {
+    private static final UUID SUBJECT = UUID.fromString("0b7c3e2a-5d1f-4c8e-a6b9-3f2e1d0c9b8a");
+    private static final String PREFIX = "test.entity.";
+    private static final String KEY = "test-entity-prefix";
+
+    // the number of checks and requests which reached the command source events, for the test subject
+    private static final AtomicInteger SOURCE_CHECKS = new AtomicInteger();
+    private static final AtomicInteger SOURCE_REQUESTS = new AtomicInteger();
+
+    @BeforeAll
+    static void registerListeners() {
+        EntityPermissionCheckEvent.EVENT.register((entity, node) -> {
+            if (!entity.getUUID().equals(SUBJECT) || !node.getPermission().startsWith(PREFIX)) {
+                return TriState.DEFAULT;
+            }
+            return TriState.of(node.getPermission().endsWith(".granted"));
+        });
+        EntityOptionRequestEvent.EVENT.register((entity, key) -> {
+            if (!entity.getUUID().equals(SUBJECT) || !key.equals(KEY)) {
+                return Optional.empty();
+            }
+            return Optional.of("[Member]");
+        });
+        PermissionCheckEvent.EVENT.register((source, permission) -> {
+            if (permission.startsWith(PREFIX)) {
+                SOURCE_CHECKS.incrementAndGet();
+            }
+            return TriState.DEFAULT;
+        });
+        OptionRequestEvent.EVENT.register((source, key) -> {
+            if (key.equals(KEY)) {
+                SOURCE_REQUESTS.incrementAndGet();
+            }
+            return Optional.empty();
+        });
+    }
+
+    @BeforeEach
+    void reset() {
+        SOURCE_CHECKS.set(0);
+        SOURCE_REQUESTS.set(0);
+    }
+
+    @Test
+    void entityListenersAnswerWithoutACommandSource() {
+        ServerPlayer player = TestSubjects.player(SUBJECT);
+
+        assertTrue(Permissions.check(player, PREFIX + "granted"));
+        assertFalse(Permissions.check(player, PREFIX + "denied", true));
+        assertEquals(Optional.of("[Member]"), Options.get(player, KEY));
+
+        assertEquals(0, SOURCE_CHECKS.get());
+        assertEquals(0, SOURCE_REQUESTS.get());
+    }
+
+    @Test
+    void nodesArePassedToEntityListeners() {
+        ServerPlayer player = TestSubjects.player(SUBJECT);
+        PermissionNode node = PermissionNode.of(PREFIX + "granted");
+
+        assertEquals(TriState.TRUE, Permissions.getPermissionValue(player, node));
+        assertEquals(0, SOURCE_CHECKS.get());
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InFlightRequestsTest {
+    private static final String PERMISSION = "test.inflight";
+
+    // each test uses its own subject, as in-flight requests are shared statically
+    private final UUID subject = UUID.randomUUID();
+    private final List<CompletableFuture<TriState>> requests = new ArrayList<>();
+
+    private CompletableFuture<TriState> request() {
+        return InFlightRequests.permission(this.subject, PERMISSION, () -> {
+            CompletableFuture<TriState> future = new CompletableFuture<>();
+            this.requests.add(future);
+            return future;
+        });
+    }
+
+    @Test
+    void pendingRequestsAreShared() {
+        CompletableFuture<TriState> first = request();
+        CompletableFuture<TriState> second = request();
+        assertEquals(1, this.requests.size());
+
+        this.requests.get(0).complete(TriState.TRUE);
+        assertEquals(TriState.TRUE, first.join());
+        assertEquals(TriState.TRUE, second.join());
+    }
+
+    @Test
+    void completedRequestsAreNotRetained() {
+        request();
+        this.requests.get(0).complete(TriState.TRUE);
+
+        request();
+        assertEquals(2, this.requests.size());
+    }
+
+    @Test
+    void invalidationStopsSharing() {
+        CompletableFuture<TriState> stale = request();
+        InFlightRequests.invalidateInternal(this.subject);
+
+        CompletableFuture<TriState> fresh = request();
+        assertEquals(2, this.requests.size());
+
+        // the stale request completing mustn't end sharing of the fresh one
+        this.requests.get(0).complete(TriState.FALSE);
+        CompletableFuture<TriState> joined = request();
+        assertEquals(2, this.requests.size());
+
+        this.requests.get(1).complete(TriState.TRUE);
+        assertEquals(TriState.FALSE, stale.join());
+        assertEquals(TriState.TRUE, fresh.join());
+        assertEquals(TriState.TRUE, joined.join());
+    }
+
+    @Test
+    void invalidatingEveryoneStopsSharing() {
+        request();
+        InFlightRequests.invalidateInternal(null);
+
+        request();
+        assertEquals(2, this.requests.size());
+    }
+
+    @Test
+    void callersCannotCancelEachOther() {
+        CompletableFuture<TriState> first = request();
+        CompletableFuture<TriState> second = request();
+        first.cancel(false);
+
+        this.requests.get(0).complete(TriState.TRUE);
+        assertTrue(first.isCancelled());
+        assertFalse(second.isCancelled());
+        assertEquals(TriState.TRUE, second.join());
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OptionKeyTest {
+    private final AtomicInteger parses = new AtomicInteger();
+    private final OptionKey<Integer> key = OptionKey.of("test-key", value -> {
+        this.parses.incrementAndGet();
+        return Integer.parseInt(value);
+    }, -1);
+
+    @Test
+    void parsesEachValueOnce() {
+        assertEquals(5, this.key.parse("5"));
+        assertEquals(5, this.key.parse("5"));
+        assertEquals(1, this.parses.get());
+    }
+
+    @Test
+    void invalidValuesAreOnlyParsedOnce() {
+        assertEquals(-1, this.key.parse("not a number"));
+        assertEquals(-1, this.key.parse("not a number"));
+        assertEquals(1, this.parses.get());
+    }
+
+    @Test
+    void nullIsTheDefault() {
+        assertEquals(-1, this.key.parse(null));
+        assertEquals(0, this.parses.get());
+    }
+
+    @Test
+    void manyValidValuesDontEvictInvalidValues() {
+        this.key.parse("not a number");
+        for (int i = 0; i < 1000; i++) {
+            this.key.parse(Integer.toString(i));
+        }
+        this.parses.set(0);
+
+        assertEquals(-1, this.key.parse("not a number"));
+        assertEquals(0, this.parses.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedValue() {
+        this.key.parse("0");
+        for (int i = 1; i < 1000; i++) {
+            // keep the first value in use
+            this.key.parse("0");
+            this.key.parse(Integer.toString(i));
+        }
+        this.parses.set(0);
+
+        assertEquals(0, this.key.parse("0"));
+        assertEquals(999, this.key.parse("999"));
+        assertEquals(0, this.parses.get());
+
+        assertEquals(1, this.key.parse("1"));
+        assertEquals(1, this.parses.get());
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PermissionCacheTest {
+    private static final UUID FIRST = UUID.fromString("c1d60c50-70b5-4722-8057-87767557e50d");
+    private static final UUID SECOND = UUID.fromString("0b2a7d4e-6f0d-4a39-9a55-3f6f1b3d8c21");
+    private static final PermissionNode NODE = PermissionNode.of("test.cache.node");
+    private static final PermissionNode OTHER_NODE = PermissionNode.of("test.cache.other");
+
+    @AfterEach
+    void disable() {
+        PermissionCache.disable();
+    }
+
+    private static PermissionCache enable(int maximumSize) {
+        PermissionCache.enable(maximumSize);
+        return PermissionCache.get();
+    }
+
+    @Test
+    void storesResults() {
+        PermissionCache cache = enable(16);
+        cache.put(FIRST, NODE, TriState.TRUE, cache.generation());
+
+        assertEquals(TriState.TRUE, cache.get(FIRST, NODE));
+        assertNull(cache.get(FIRST, OTHER_NODE));
+        assertNull(cache.get(SECOND, NODE));
+    }
+
+    @Test
+    void invalidatesSingleSubject() {
+        PermissionCache cache = enable(16);
+        cache.put(FIRST, NODE, TriState.TRUE, cache.generation());
+        cache.put(SECOND, NODE, TriState.FALSE, cache.generation());
+
+        PermissionCache.invalidateInternal(FIRST);
+        assertNull(cache.get(FIRST, NODE));
+        assertEquals(TriState.FALSE, cache.get(SECOND, NODE));
+    }
+
+    @Test
+    void invalidatesAllSubjects() {
+        PermissionCache cache = enable(16);
+        cache.put(FIRST, NODE, TriState.TRUE, cache.generation());
+        cache.put(SECOND, NODE, TriState.FALSE, cache.generation());
+
+        PermissionCache.invalidateInternal(null);
+        assertNull(cache.get(FIRST, NODE));
+        assertNull(cache.get(SECOND, NODE));
+    }
+
+    @Test
+    void doesNotStoreResultsComputedAcrossAnInvalidation() {
+        PermissionCache cache = enable(16);
+        long generation = cache.generation();
+
+        // the provider's data changes while the result is being computed
+        PermissionCache.invalidateInternal(FIRST);
+        cache.put(FIRST, NODE, TriState.TRUE, generation);
+        assertNull(cache.get(FIRST, NODE));
+
+        cache.put(FIRST, NODE, TriState.FALSE, cache.generation());
+        assertEquals(TriState.FALSE, cache.get(FIRST, NODE));
+    }
+
+    @Test
+    void invalidationEventInvalidatesCache() {
+        PermissionCache cache = enable(16);
+        long generation = cache.generation();
+        PermissionInvalidationEvent.EVENT.invoker().onInvalidate(FIRST);
+
+        cache.put(FIRST, NODE, TriState.TRUE, generation);
+        assertNull(cache.get(FIRST, NODE));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedSubject() {
+        PermissionCache cache = enable(3);
+        cache.put(FIRST, NODE, TriState.TRUE, cache.generation());
+        cache.put(FIRST, OTHER_NODE, TriState.TRUE, cache.generation());
+        cache.put(SECOND, NODE, TriState.FALSE, cache.generation());
+
+        // use the first subject, so the second is evicted once the cache is full
+        cache.get(FIRST, NODE);
+        cache.put(SECOND, OTHER_NODE, TriState.FALSE, cache.generation());
+
+        assertNull(cache.get(SECOND, NODE));
+        assertNull(cache.get(SECOND, OTHER_NODE));
+        assertEquals(TriState.TRUE, cache.get(FIRST, NODE));
+        assertEquals(TriState.TRUE, cache.get(FIRST, OTHER_NODE));
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.commands.CommandSourceStack;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PermissionCheckOrderTest {
+    private static final String NAMESPACE = "test.order.";
+
+    // the callbacks called for the last check, in order
+    private static final List<String> CALLED = new CopyOnWriteArrayList<>();
+
+    private static CommandSourceStack source;
+
+    private static PermissionCheckEvent callback(String name, TriState state) {
+        return (source, permission) -> {
+            CALLED.add(name);
+            return permission.endsWith(".answered") ? state : TriState.DEFAULT;
+        };
+    }
+
+    @BeforeAll
+    static void registerListeners() {
+        source = TestSubjects.source(TestSubjects.server(), null);
+
+        // registered out of order, to check that the phases are sorted by priority
+        PermissionCheckEvent.register(NAMESPACE, -10, callback("low", TriState.TRUE));
+        PermissionCheckEvent.register(NAMESPACE, 10, callback("high", TriState.DEFAULT));
+        PermissionCheckEvent.EVENT.register((source, permission) -> {
+            if (permission.startsWith(NAMESPACE)) {
+                CALLED.add("default");
+            }
+            return TriState.DEFAULT;
+        });
+        PermissionCheckEvent.register(NAMESPACE, 5, callback("mid", TriState.DEFAULT));
+        PermissionCheckEvent.register(NAMESPACE + "override.", 1, callback("override", TriState.FALSE));
+        PermissionCheckEvent.register("test.other.", 20, callback("other", TriState.TRUE));
+    }
+
+    @BeforeEach
+    void reset() {
+        CALLED.clear();
+    }
+
+    @Test
+    void callbacksAreCalledHighestPriorityFirst() {
+        assertEquals(TriState.TRUE, Permissions.getPermissionValue(source, NAMESPACE + "answered"));
+        assertEquals(List.of("high", "mid", "default", "low"), CALLED);
+    }
+
+    @Test
+    void higherPriorityResultsTakePrecedence() {
+        assertEquals(TriState.FALSE, Permissions.getPermissionValue(source, NAMESPACE + "override.answered"));
+        assertEquals(List.of("high", "mid", "override"), CALLED);
+    }
+
+    @Test
+    void callbacksAreOnlyCalledWithinTheirNamespace() {
+        assertEquals(TriState.DEFAULT, Permissions.getPermissionValue(source, NAMESPACE + "unset"));
+        assertEquals(List.of("high", "mid", "default", "low"), CALLED);
+
+        CALLED.clear();
+        assertEquals(TriState.TRUE, Permissions.getPermissionValue(source, "test.other.answered"));
+        assertEquals(List.of("other"), CALLED);
+    }
+
+    @Test
+    void nodesAreDispatchedInTheSameOrder() {
+        assertEquals(TriState.TRUE, Permissions.getPermissionValue(source, PermissionNode.of(NAMESPACE + "answered")));
+        assertEquals(List.of("high", "mid", "default", "low"), CALLED);
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PermissionWatchersTest {
+    private static final UUID SUBJECT = UUID.fromString("4f8a2c1e-9b3d-4e7f-8a6c-5d2b1e0f3a97");
+    private static final String PERMISSION = "test.watch";
+
+    // the state returned by the offline check for the test subject
+    private static volatile TriState state = TriState.DEFAULT;
+
+    private final List<TriState> changes = new CopyOnWriteArrayList<>();
+
+    @BeforeAll
+    static void registerListeners() {
+        OfflinePermissionCheckEvent.EVENT.register((uuid, permission) -> {
+            if (!uuid.equals(SUBJECT) || !permission.equals(PERMISSION)) {
+                return CompletableFuture.completedFuture(TriState.DEFAULT);
+            }
+            return CompletableFuture.completedFuture(state);
+        });
+    }
+
+    @BeforeEach
+    void reset() {
+        state = TriState.DEFAULT;
+    }
+
+    private static void change(TriState newState) {
+        state = newState;
+        PermissionInvalidationEvent.EVENT.invoker().onInvalidate(SUBJECT);
+    }
+
+    @Test
+    void listenerIsOnlyCalledWhenTheStateChanges() {
+        Subscription subscription = Permissions.watch(SUBJECT, PERMISSION, this.changes::add);
+        try {
+            // nothing has changed yet
+            assertEquals(List.of(), this.changes);
+
+            change(TriState.TRUE);
+            change(TriState.TRUE);
+            change(TriState.FALSE);
+            PermissionInvalidationEvent.EVENT.invoker().onInvalidate(null);
+
+            assertEquals(List.of(TriState.TRUE, TriState.FALSE), this.changes);
+        } finally {
+            subscription.unsubscribe();
+        }
+    }
+
+    @Test
+    void invalidationsForOtherSubjectsAreIgnored() {
+        Subscription subscription = Permissions.watch(SUBJECT, PERMISSION, this.changes::add);
+        try {
+            state = TriState.TRUE;
+            PermissionInvalidationEvent.EVENT.invoker().onInvalidate(UUID.randomUUID());
+            assertEquals(List.of(), this.changes);
+        } finally {
+            subscription.unsubscribe();
+        }
+    }
+
+    @Test
+    void listenerIsNotCalledAfterUnsubscribing() {
+        Subscription subscription = Permissions.watch(SUBJECT, PERMISSION, this.changes::add);
+        subscription.unsubscribe();
+        subscription.unsubscribe();
+
+        change(TriState.TRUE);
+        assertEquals(List.of(), this.changes);
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.minecraft.server.level.ServerPlayer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PlayerOptionCacheTest {
+    private static final UUID SUBJECT = UUID.fromString("6d1f8b0e-2c4a-4b5e-9e2f-0a8c7d3b1e54");
+    private static final String KEY = "test-option-cache-prefix";
+
+    // the number of requests which reached the events, for the test subject
+    private static final AtomicInteger REQUESTS = new AtomicInteger();
+
+    @BeforeAll
+    static void registerListeners() {
+        OfflineBatchOptionRequestEvent.EVENT.register((uuid, keys) -> {
+            if (!uuid.equals(SUBJECT)) {
+                return CompletableFuture.completedFuture(Map.of());
+            }
+            return CompletableFuture.completedFuture(Map.of(KEY, Optional.of("[Admin]")));
+        });
+        EntityOptionRequestEvent.EVENT.register((entity, key) -> {
+            if (!entity.getUUID().equals(SUBJECT)) {
+                return Optional.empty();
+            }
+            REQUESTS.incrementAndGet();
+            return Optional.of("[Member]");
+        });
+    }
+
+    @BeforeEach
+    void enable() {
+        REQUESTS.set(0);
+        PlayerOptionCache.enable();
+    }
+
+    @AfterEach
+    void disable() {
+        PlayerOptionCache.disable();
+    }
+
+    @Test
+    void prefetchedValuesAreServedFromTheCache() {
+        ServerPlayer player = TestSubjects.player(SUBJECT);
+        assertEquals(Map.of(KEY, "[Admin]"), Options.prefetch(player, List.of(KEY)).join());
+
+        assertEquals(Optional.of("[Admin]"), Options.get(player, KEY));
+        assertEquals(0, REQUESTS.get());
+    }
+
+    @Test
+    void prefetchingAnOfflinePlayerDoesNotCreateAView() {
+        assertEquals(Map.of(KEY, "[Admin]"), Options.prefetch(SUBJECT, List.of(KEY)).join());
+        assertNull(PlayerOptionCache.getOrCreateView(SUBJECT));
+    }
+
+    @Test
+    void invalidationDropsCachedValues() {
+        ServerPlayer player = TestSubjects.player(SUBJECT);
+        Options.prefetch(player, List.of(KEY)).join();
+
+        PermissionInvalidationEvent.EVENT.invoker().onInvalidate(SUBJECT);
+        assertEquals(Optional.of("[Member]"), Options.get(player, KEY));
+        assertEquals(1, REQUESTS.get());
+    }
+
+}
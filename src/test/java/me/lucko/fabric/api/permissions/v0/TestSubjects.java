@@ -0,0 +1,135 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.commands.CommandSource;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.dedicated.DedicatedServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.permissions.PermissionSet;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.phys.Vec2;
+import net.minecraft.world.phys.Vec3;
+import org.objenesis.ObjenesisStd;
+
+import java.lang.reflect.Field;
+import java.util.UUID;
+
+/**
+ * Hand-written subjects for the tests, so that they can run without a running server.
+ *
+ * <p>None of the methods used by the permission checks allocate.</p>
+ */
+final class TestSubjects {
+    static final PermissionSet ALL_PERMISSIONS = permission -> true;
+    private static final Component NAME = Component.literal("test");
+    private static final ObjenesisStd OBJENESIS = new ObjenesisStd();
+
+    private static boolean bootstrapped = false;
+
+    private TestSubjects() {
+    }
+
+    private static void bootstrap() {
+        if (!bootstrapped) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            bootstrapped = true;
+        }
+    }
+
+    /**
+     * Creates a server which isn't running, and whose tick count is set using {@link #setTickCount(MinecraftServer, int)}.
+     */
+    static MinecraftServer server() {
+        bootstrap();
+        // the server constructor needs a world, so the instance is created without it
+        return OBJENESIS.newInstance(DedicatedServer.class);
+    }
+
+    static void setTickCount(MinecraftServer server, int tickCount) {
+        try {
+            TickCount.FIELD.setInt(server, tickCount);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static CommandSourceStack source(MinecraftServer server, Entity entity) {
+        return new CommandSourceStack(CommandSource.NULL, Vec3.ZERO, Vec2.ZERO, null, ALL_PERMISSIONS, "test", NAME, server, entity);
+    }
+
+    static ServerPlayer player(UUID uuid) {
+        bootstrap();
+        // the player constructor needs a running server, so the instance is created without it
+        TestPlayer player = OBJENESIS.newInstance(TestPlayer.class);
+        player.setUUID(uuid);
+        return player;
+    }
+
+    private static final class TickCount {
+        private static final Field FIELD;
+
+        static {
+            try {
+                FIELD = MinecraftServer.class.getDeclaredField("tickCount");
+                FIELD.setAccessible(true);
+            } catch (NoSuchFieldException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+
+    /**
+     * A player whose name and permissions don't depend on a server, profile or scoreboard.
+     */
+    private static final class TestPlayer extends ServerPlayer {
+        private TestPlayer() {
+            super(null, null, null, null);
+            throw new AssertionError();
+        }
+
+        @Override
+        public Component getName() {
+            return NAME;
+        }
+
+        @Override
+        public Component getDisplayName() {
+            return NAME;
+        }
+
+        @Override
+        public PermissionSet permissions() {
+            return ALL_PERMISSIONS;
+        }
+    }
+
+}
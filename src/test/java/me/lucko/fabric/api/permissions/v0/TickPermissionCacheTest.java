@@ -0,0 +1,57 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickPermissionCacheTest {
+    private static final PermissionNode NODE = PermissionNode.of("test.tick.node");
+
+    @Test
+    void storesResults() {
+        Map<PermissionNode, TriState> results = new HashMap<>();
+        TickPermissionCache.put(results, NODE, TriState.TRUE, TickPermissionCache.generation());
+        assertEquals(Map.of(NODE, TriState.TRUE), results);
+    }
+
+    @Test
+    void doesNotStoreResultsComputedAcrossAnInvalidation() {
+        Map<PermissionNode, TriState> results = new HashMap<>();
+        int generation = TickPermissionCache.generation();
+
+        PermissionInvalidationEvent.EVENT.invoker().onInvalidate(null);
+        TickPermissionCache.put(results, NODE, TriState.TRUE, generation);
+        assertTrue(results.isEmpty());
+    }
+
+}
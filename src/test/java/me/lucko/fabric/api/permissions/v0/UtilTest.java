@@ -0,0 +1,138 @@
+/*
+ * This file is part of fabric-permissions-api, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+
+package me.lucko.fabric.api.permissions.v0;
+
+import net.fabricmc.fabric.api.util.TriState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UtilTest {
+
+    private static CompletableFuture<TriState> answer(String callback) {
+        switch (callback) {
+            case "default":
+                return CompletableFuture.completedFuture(TriState.DEFAULT);
+            case "true":
+                return CompletableFuture.completedFuture(TriState.TRUE);
+            default:
+                throw new IllegalStateException(callback);
+        }
+    }
+
+    @Test
+    void firstResultSkipsDefaults() {
+        CompletableFuture<TriState> result = Util.firstResult(new String[]{"default", "true", "throw"}, 0, UtilTest::answer, state -> state != TriState.DEFAULT, TriState.DEFAULT);
+        assertEquals(TriState.TRUE, result.join());
+    }
+
+    @Test
+    void firstResultCompletesExceptionallyWhenCallbackThrows() {
+        for (String[] callbacks : new String[][]{{"throw"}, {"default", "throw"}}) {
+            CompletableFuture<TriState> result = Util.firstResult(callbacks, 0, UtilTest::answer, state -> state != TriState.DEFAULT, TriState.DEFAULT);
+            assertTrue(result.isCompletedExceptionally());
+            CompletionException e = assertThrows(CompletionException.class, result::join);
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    void mergeResultsCompletesExceptionallyWhenCallbackThrows() {
+        List<TriState> results = new ArrayList<>();
+        CompletableFuture<List<TriState>> result = Util.mergeResults(new String[]{"true", "throw"}, 0, results, (callback, res) -> answer(callback), List::add);
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(List.of(TriState.TRUE), results);
+    }
+
+    @Test
+    void thenApplyCompletesExceptionallyWhenFunctionThrows() {
+        CompletableFuture<Object> result = Util.thenApply(CompletableFuture.completedFuture(TriState.TRUE), state -> {
+            throw new IllegalStateException();
+        }, null);
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void thenApplyIsSynchronousWhenComplete() {
+        CompletableFuture<String> result = Util.thenApply(CompletableFuture.completedFuture(TriState.TRUE), TriState::name, null);
+        assertTrue(result.isDone());
+        assertEquals("TRUE", result.join());
+    }
+
+    @Test
+    void parseLongAcceptsValuesInRange() {
+        assertEquals(42L, Util.parseLong("42", 0, 100, -1));
+        assertEquals(-5L, Util.parseLong("-5", -10, 10, 0));
+        assertEquals(5L, Util.parseLong("+5", -10, 10, 0));
+        assertEquals(Long.MIN_VALUE, Util.parseLong(Long.toString(Long.MIN_VALUE), Long.MIN_VALUE, Long.MAX_VALUE, 0));
+    }
+
+    @Test
+    void parseLongRejectsMalformedAndOutOfRangeValues() {
+        for (String value : new String[]{null, "", "-", "+", "1.0", "1e3", " 1", "0x10", "--1", "1-", "99999999999999999999", "123456789012345678901"}) {
+            assertEquals(-1L, Util.parseLong(value, Long.MIN_VALUE, Long.MAX_VALUE, -1), String.valueOf(value));
+        }
+        assertEquals(-1L, Util.parseLong("101", 0, 100, -1));
+        assertEquals(-1L, Util.parseLong("128", Byte.MIN_VALUE, Byte.MAX_VALUE, -1));
+    }
+
+    @Test
+    void parseDoubleAcceptsNumbers() {
+        assertEquals(1.5, Util.parseDouble("1.5", Double.NaN));
+        assertEquals(-0.25, Util.parseDouble("-.25", Double.NaN));
+        assertEquals(1000.0, Util.parseDouble("1e3", Double.NaN));
+    }
+
+    @Test
+    void parseDoubleRejectsMalformedValues() {
+        for (String value : new String[]{null, "", ".", "-", "e", "NaN", "Infinity", "1.5f", "0x1p3", "1..5", "1e", " 1"}) {
+            assertEquals(-1.0, Util.parseDouble(value, -1.0), String.valueOf(value));
+        }
+    }
+
+    @Test
+    void exactIntegersMustBeWholeAndInRange() {
+        assertTrue(Util.isExactInteger(5.0, 0, 10));
+        assertTrue(Util.isExactInteger(-0.0, 0, 10));
+        assertTrue(Util.isExactInteger(0x1p53, Long.MIN_VALUE, Long.MAX_VALUE));
+
+        assertFalse(Util.isExactInteger(5.5, 0, 10));
+        assertFalse(Util.isExactInteger(11.0, 0, 10));
+        assertFalse(Util.isExactInteger(0x1p53 + 2, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertFalse(Util.isExactInteger(Double.NaN, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertFalse(Util.isExactInteger(Double.POSITIVE_INFINITY, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+}